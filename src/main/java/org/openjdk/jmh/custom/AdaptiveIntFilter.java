@@ -0,0 +1,145 @@
+package org.openjdk.jmh.custom;
+
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * 根据每个谓词的拒绝率和耗时动态调整执行顺序的过滤器。
+ * <p>
+ * 数据按 {@link #BATCH_SIZE} 分批处理；每隔 resampleInterval 批，从当前批次里取 {@link #SAMPLE_SIZE} 个值，
+ * 让每个谓词单独跑一遍，记录拒绝率和平均单次耗时，并用指数移动平均平滑。
+ * 耗时按整段样本计时再除以样本数，一次计时覆盖上千次调用，是微秒级的，System.nanoTime 的精度足够。
+ * 对于相互独立的谓词，按 cost / rejectRate 从小到大执行能让期望总耗时最小：
+ * 便宜又挑剔的谓词先把大部分数据过滤掉，昂贵的谓词处理的数据就少。
+ * 数据分布发生漂移时，后续采样会把新的顺序调整过来。每批数据交给按当前顺序构建的 {@link IntFilterPipeline} 处理。
+ * <p>
+ * 内部保存了统计信息和当前顺序，不是线程安全的，每个线程应使用自己的实例。
+ */
+public class AdaptiveIntFilter {
+
+    static final int BATCH_SIZE = 4096;
+
+    static final int SAMPLE_SIZE = 1024;
+
+    /**
+     * 新样本在移动平均里的权重
+     */
+    private static final double SMOOTHING = 0.5;
+
+    private final IntPredicate[] stages;
+    private final int resampleInterval;
+
+    private final double[] rejectRate;
+    private final double[] nanosPerTest;
+
+    /**
+     * 当前执行顺序，order[0] 最先执行
+     */
+    private final int[] order;
+
+    /**
+     * 按 order 排好的管道，每次重新采样后重建
+     */
+    private IntFilterPipeline pipeline;
+
+    private long batches;
+    private boolean sampled;
+
+    public AdaptiveIntFilter(List<IntPredicate> stages, int resampleInterval) {
+        if (resampleInterval <= 0) {
+            throw new IllegalArgumentException("resampleInterval must be positive: " + resampleInterval);
+        }
+        this.stages = stages.toArray(new IntPredicate[0]);
+        this.resampleInterval = resampleInterval;
+        this.rejectRate = new double[this.stages.length];
+        this.nanosPerTest = new double[this.stages.length];
+        this.order = new int[this.stages.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        this.pipeline = IntFilterPipeline.of(this.stages);
+    }
+
+    /**
+     * 过滤 source，满足所有谓词的值写入 output，返回写入个数；output 长度至少为 source.length
+     */
+    public int filter(int[] source, int[] output) {
+        int count = 0;
+        for (int from = 0; from < source.length; from += BATCH_SIZE) {
+            int to = Math.min(source.length, from + BATCH_SIZE);
+            if (batches++ % resampleInterval == 0) {
+                sample(source, from, to);
+            }
+            count += pipeline.filter(source, from, to, output, count);
+        }
+        return count;
+    }
+
+    /**
+     * 当前的执行顺序（谓词在构造参数中的下标）
+     */
+    public int[] currentOrder() {
+        return order.clone();
+    }
+
+    private void sample(int[] source, int from, int to) {
+        int length = Math.min(SAMPLE_SIZE, to - from);
+        if (length == 0) {
+            return;
+        }
+        for (int s = 0; s < stages.length; s++) {
+            IntPredicate stage = stages[s];
+            int rejected = 0;
+            long start = System.nanoTime();
+            for (int i = from; i < from + length; i++) {
+                if (!stage.test(source[i])) {
+                    rejected++;
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+
+            double rate = rejected / (double) length;
+            double nanos = Math.max(elapsed, 1) / (double) length;
+            if (sampled) {
+                rejectRate[s] = SMOOTHING * rate + (1 - SMOOTHING) * rejectRate[s];
+                nanosPerTest[s] = SMOOTHING * nanos + (1 - SMOOTHING) * nanosPerTest[s];
+            } else {
+                rejectRate[s] = rate;
+                nanosPerTest[s] = nanos;
+            }
+        }
+        sampled = true;
+        reorder();
+    }
+
+    /**
+     * 按 cost / rejectRate 升序插入排序，谓词数量通常很少；顺序变化时重建管道
+     */
+    private void reorder() {
+        boolean changed = false;
+        for (int i = 1; i < order.length; i++) {
+            int current = order[i];
+            double rank = rank(current);
+            int j = i - 1;
+            while (j >= 0 && rank(order[j]) > rank) {
+                order[j + 1] = order[j];
+                j--;
+                changed = true;
+            }
+            order[j + 1] = current;
+        }
+        if (changed) {
+            IntPredicate[] ordered = new IntPredicate[order.length];
+            for (int i = 0; i < order.length; i++) {
+                ordered[i] = stages[order[i]];
+            }
+            pipeline = IntFilterPipeline.of(ordered);
+        }
+    }
+
+    private double rank(int stage) {
+        // 拒绝率为 0 的谓词放到最后
+        double rate = Math.max(rejectRate[stage], 1e-9);
+        return nanosPerTest[stage] / rate;
+    }
+}
@@ -0,0 +1,108 @@
+package org.openjdk.jmh.custom;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+
+/**
+ * 固定顺序的 forLoop 与自适应调整顺序的 AdaptiveIntFilter 对比。
+ * <p>
+ * 谓词顺序与 FilterDataInDifferentWayBenchmark 类似，最后额外加一个只保留约 3% 数据的区间谓词，
+ * 也就是选择性最强的谓词排在最后：
+ * <ul>
+ * <li>skewed：数据在 [0, 2^30) 上均匀分布，最后一个谓词拒绝约 97%</li>
+ * <li>drifting：前一半同 skewed；后一半全部是 13 的倍数且都落在区间内，变成第一个谓词拒绝全部数据</li>
+ * </ul>
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-Xms1G", "-Xmx1G"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class AdaptivePredicateOrderBenchmark {
+
+    private static final int RANGE = 1 << 30;
+    private static final int THRESHOLD = RANGE / 32;
+
+    @Param({"skewed", "drifting"})
+    private String dataset;
+
+    @Param({"1000000"})
+    private int size;
+
+    @Param({"16"})
+    private int resampleInterval;
+
+    private int[] values;
+    private int[] output;
+
+    private IntFilterPipeline staticPipeline;
+    private AdaptiveIntFilter adaptive;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(AdaptivePredicateOrderBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42L);
+        values = new int[size];
+        for (int i = 0; i < size; i++) {
+            boolean drifted = "drifting".equals(dataset) && i >= size / 2;
+            values[i] = drifted
+                    ? 13 * random.nextInt(THRESHOLD / 13)
+                    : random.nextInt(RANGE);
+        }
+        output = new int[size];
+
+        List<IntPredicate> stages = Arrays.asList(
+                value -> value % 13 != 0,
+                value -> value % 14 != 0,
+                value -> value % 15 != 0,
+                value -> value % 16 != 0,
+                value -> value < THRESHOLD);
+        staticPipeline = new IntFilterPipeline(stages);
+        adaptive = new AdaptiveIntFilter(stages, resampleInterval);
+    }
+
+    @Benchmark
+    public int forLoop() {
+        int[] output = this.output;
+        int count = 0;
+        for (int value : values) {
+            if (value % 13 != 0
+                    && value % 14 != 0
+                    && value % 15 != 0
+                    && value % 16 != 0
+                    && value < THRESHOLD) {
+                output[count++] = value;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int staticPipeline() {
+        return staticPipeline.filter(values, output);
+    }
+
+    @Benchmark
+    public int adaptiveFilter() {
+        return adaptive.filter(values, output);
+    }
+
+}
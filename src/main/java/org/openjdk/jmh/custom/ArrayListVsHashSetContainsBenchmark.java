@@ -1,5 +1,6 @@
 package org.openjdk.jmh.custom;
 
+import org.agrona.collections.IntHashSet;
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
@@ -29,6 +30,12 @@ public class ArrayListVsHashSetContainsBenchmark {
 
     private List<Integer> arrayList;
     private HashSet<Integer> hashSet;
+    private IntOpenHashSet intOpenHashSet;
+    private IntHashSet agronaIntHashSet;
+    private SortedIntSet binarySearchSet;
+    private SortedIntSet branchlessSet;
+    private SortedIntSet eytzingerSet;
+    private FilteredSet filteredHashSet;
 
     @Param(value = {"-1", "300", "3000", "9999", "111111"})
     private int value;
@@ -52,6 +59,20 @@ public class ArrayListVsHashSetContainsBenchmark {
         Collections.shuffle(arrayList);
 
         hashSet = new HashSet<>(arrayList);
+
+        intOpenHashSet = new IntOpenHashSet(arrayList.size());
+        agronaIntHashSet = new IntHashSet(arrayList.size() * 2);
+        for (int i : arrayList) {
+            intOpenHashSet.add(i);
+            agronaIntHashSet.add(i);
+        }
+
+        int[] values = arrayList.stream().mapToInt(Integer::intValue).toArray();
+        binarySearchSet = SortedIntSet.of(values, SortedIntSet.Layout.BINARY_SEARCH);
+        branchlessSet = SortedIntSet.of(values, SortedIntSet.Layout.BRANCHLESS);
+        eytzingerSet = SortedIntSet.of(values, SortedIntSet.Layout.EYTZINGER);
+
+        filteredHashSet = FilteredSet.of(values, 0.01, hashSet::contains);
     }
 
     @Benchmark
@@ -64,4 +85,34 @@ public class ArrayListVsHashSetContainsBenchmark {
         return hashSet.contains(value);
     }
 
+    @Benchmark
+    public boolean intOpenHashSetContains() {
+        return intOpenHashSet.contains(value);
+    }
+
+    @Benchmark
+    public boolean agronaIntHashSetContains() {
+        return agronaIntHashSet.contains(value);
+    }
+
+    @Benchmark
+    public boolean binarySearchContains() {
+        return binarySearchSet.contains(value);
+    }
+
+    @Benchmark
+    public boolean branchlessBinarySearchContains() {
+        return branchlessSet.contains(value);
+    }
+
+    @Benchmark
+    public boolean eytzingerContains() {
+        return eytzingerSet.contains(value);
+    }
+
+    @Benchmark
+    public boolean bloomFilteredHashSetContains() {
+        return filteredHashSet.contains(value);
+    }
+
 }
@@ -0,0 +1,183 @@
+package org.openjdk.jmh.custom;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 只处理 ASCII 的字符串拼接器，直接往可复用的 byte[] 里写。
+ * <p>
+ * 与 StringBuilder 相比：数字直接编码成 ASCII 字节，不经过 Integer.toString；
+ * 结果可以直接写入 ByteBuffer，不需要先生成 String 再 getBytes；
+ * 调用 {@link #reset()} 之后缓冲区被复用，稳定状态下不分配任何对象。
+ * 非 ASCII 字符会被替换成 '?'。不是线程安全的。
+ */
+public final class AsciiBuilder {
+
+    private static final byte[] MIN_LONG = "-9223372036854775808".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * 00 到 99 的两位 ASCII 数字，编码时每次除以 100 写两位
+     */
+    private static final byte[] DIGIT_PAIRS = new byte[200];
+
+    private static final int[] INT_POWERS_OF_TEN = {
+            9, 99, 999, 9999, 99999, 999999, 9999999, 99999999, 999999999, Integer.MAX_VALUE
+    };
+
+    static {
+        for (int i = 0; i < 100; i++) {
+            DIGIT_PAIRS[i << 1] = (byte) ('0' + i / 10);
+            DIGIT_PAIRS[(i << 1) + 1] = (byte) ('0' + i % 10);
+        }
+    }
+
+    private byte[] bytes;
+    private int length;
+
+    public AsciiBuilder() {
+        this(64);
+    }
+
+    public AsciiBuilder(int capacity) {
+        this.bytes = new byte[Math.max(16, capacity)];
+    }
+
+    public AsciiBuilder reset() {
+        length = 0;
+        return this;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public int capacity() {
+        return bytes.length;
+    }
+
+    public AsciiBuilder append(char c) {
+        ensureCapacity(1);
+        bytes[length++] = c < 0x80 ? (byte) c : (byte) '?';
+        return this;
+    }
+
+    public AsciiBuilder append(CharSequence chars) {
+        int n = chars.length();
+        ensureCapacity(n);
+        byte[] bytes = this.bytes;
+        int length = this.length;
+        for (int i = 0; i < n; i++) {
+            char c = chars.charAt(i);
+            bytes[length + i] = c < 0x80 ? (byte) c : (byte) '?';
+        }
+        this.length = length + n;
+        return this;
+    }
+
+    public AsciiBuilder append(int value) {
+        if (value == Integer.MIN_VALUE) {
+            return append((long) value);
+        }
+        boolean negative = value < 0;
+        int v = negative ? -value : value;
+        int digits = digits(v);
+        int size = negative ? digits + 1 : digits;
+        ensureCapacity(size);
+        byte[] bytes = this.bytes;
+        if (negative) {
+            bytes[length] = '-';
+        }
+        int position = length + size;
+        while (v >= 100) {
+            int q = v / 100;
+            int pair = (v - q * 100) << 1;
+            bytes[--position] = DIGIT_PAIRS[pair + 1];
+            bytes[--position] = DIGIT_PAIRS[pair];
+            v = q;
+        }
+        if (v >= 10) {
+            bytes[--position] = DIGIT_PAIRS[(v << 1) + 1];
+            bytes[--position] = DIGIT_PAIRS[v << 1];
+        } else {
+            bytes[--position] = (byte) ('0' + v);
+        }
+        length += size;
+        return this;
+    }
+
+    public AsciiBuilder append(long value) {
+        if (value == Long.MIN_VALUE) {
+            ensureCapacity(MIN_LONG.length);
+            System.arraycopy(MIN_LONG, 0, bytes, length, MIN_LONG.length);
+            length += MIN_LONG.length;
+            return this;
+        }
+        if (value >= Integer.MIN_VALUE + 1 && value <= Integer.MAX_VALUE) {
+            return append((int) value);
+        }
+        int digits = value < 0 ? digits(-value) + 1 : digits(value);
+        ensureCapacity(digits);
+        byte[] bytes = this.bytes;
+        int position = length + digits;
+        long v = value;
+        if (v < 0) {
+            bytes[length] = '-';
+            v = -v;
+        }
+        do {
+            long q = v / 10;
+            bytes[--position] = (byte) ('0' + (v - q * 10));
+            v = q;
+        } while (v != 0);
+        length += digits;
+        return this;
+    }
+
+    /**
+     * 把当前内容写入 target（从其 position 开始），返回写入的字节数
+     */
+    public int writeTo(ByteBuffer target) {
+        target.put(bytes, 0, length);
+        return length;
+    }
+
+    /**
+     * 当前内容的底层数组，有效数据为 [0, length())，下次修改前有效
+     */
+    public byte[] array() {
+        return bytes;
+    }
+
+    /**
+     * 会分配新的 String，仅用于调试或校验
+     */
+    @Override
+    public String toString() {
+        return new String(bytes, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    static int digits(int value) {
+        int digits = 1;
+        while (value > INT_POWERS_OF_TEN[digits - 1]) {
+            digits++;
+        }
+        return digits;
+    }
+
+    static int digits(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    private void ensureCapacity(int extra) {
+        int required = length + extra;
+        if (required > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(required, bytes.length << 1));
+        }
+    }
+}
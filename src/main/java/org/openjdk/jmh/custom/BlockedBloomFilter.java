@@ -0,0 +1,96 @@
+package org.openjdk.jmh.custom;
+
+/**
+ * 分块布隆过滤器：每个 key 只落在一个 64 字节（8 个 long，一条缓存行）的块里，
+ * 一次查询最多访问一条缓存行（Java 数组不保证按 64 字节对齐，最坏情况下是两条）。
+ * <p>
+ * 分块会让误判率比同样大小的标准布隆过滤器略高，这里按目标误判率计算位数后额外多分配一些位作为补偿。
+ */
+public class BlockedBloomFilter {
+
+    private static final int LONGS_PER_BLOCK = 8;
+    private static final int BITS_PER_BLOCK = LONGS_PER_BLOCK * Long.SIZE;
+
+    /**
+     * 分块带来的误判率损失，经验上多给 20% 的位就能补回来
+     */
+    private static final double BLOCK_OVERHEAD = 1.2;
+
+    private final long[] bits;
+    private final int numberOfBlocks;
+    private final int numberOfHashes;
+
+    public BlockedBloomFilter(int expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive: " + expectedInsertions);
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("falsePositiveRate must be in (0, 1): " + falsePositiveRate);
+        }
+
+        double ln2 = Math.log(2);
+        double bitsPerElement = -Math.log(falsePositiveRate) / (ln2 * ln2);
+        long totalBits = (long) Math.ceil(expectedInsertions * bitsPerElement * BLOCK_OVERHEAD);
+        long blocks = Math.max(1, (totalBits + BITS_PER_BLOCK - 1) / BITS_PER_BLOCK);
+        if (blocks * LONGS_PER_BLOCK > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("filter is too large: " + totalBits + " bits");
+        }
+
+        this.numberOfBlocks = (int) blocks;
+        this.numberOfHashes = Math.max(1, Math.min(16, (int) Math.round(bitsPerElement * ln2)));
+        this.bits = new long[numberOfBlocks * LONGS_PER_BLOCK];
+    }
+
+    static long mix64(int key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        h *= 0xD6E8FEB86659FD93L;
+        return h ^ (h >>> 32);
+    }
+
+    public void add(int key) {
+        long hash = mix64(key);
+        int offset = blockOffset(hash);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long[] bits = this.bits;
+        for (int i = 0; i < numberOfHashes; i++) {
+            int bit = (h1 + i * h2) & (BITS_PER_BLOCK - 1);
+            bits[offset + (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * 返回 false 时 key 一定不存在；返回 true 时 key 可能存在
+     */
+    public boolean mightContain(int key) {
+        long hash = mix64(key);
+        int offset = blockOffset(hash);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long[] bits = this.bits;
+        for (int i = 0; i < numberOfHashes; i++) {
+            int bit = (h1 + i * h2) & (BITS_PER_BLOCK - 1);
+            if ((bits[offset + (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int numberOfHashes() {
+        return numberOfHashes;
+    }
+
+    public long sizeInBytes() {
+        return 8L * bits.length;
+    }
+
+    /**
+     * 用 hash 的高 32 位做乘法取模（fastrange），避免 % 运算
+     */
+    private int blockOffset(long hash) {
+        int block = (int) (((hash >>> 32) * numberOfBlocks) >>> 32);
+        return block * LONGS_PER_BLOCK;
+    }
+}
@@ -0,0 +1,75 @@
+package org.openjdk.jmh.custom;
+
+/**
+ * 无分支的过滤 / 压缩内核：每个候选值都无条件写到 output[count]，再用谓词结果（0 或 1）推进 count。
+ * <p>
+ * 这样循环里只剩下循环本身的分支，与数据无关，不会因为数据无序而发生分支预测失败
+ * （参考 JMHSample_36_BranchPrediction）。代价是每个值都要做完所有判断、都要写一次 output，
+ * 所以在数据有序、分支几乎总能预测对的情况下可能反而更慢。
+ * <p>
+ * output 的长度至少要等于 source.length。
+ */
+public final class BranchlessCompaction {
+
+    private BranchlessCompaction() {
+    }
+
+    /**
+     * x != 0 时返回 1，否则返回 0，不产生分支
+     */
+    static int nonZero(int x) {
+        return (x | -x) >>> 31;
+    }
+
+    /**
+     * a &lt; b 时返回 1，否则返回 0，不产生分支
+     */
+    static int lessThan(int a, int b) {
+        return (int) (((long) a - (long) b) >>> 63);
+    }
+
+    /**
+     * 保留所有不能被 divisors 中任何一个整除的值，返回保留个数
+     */
+    public static int notDivisibleByAll(int[] source, int[] divisors, int[] output) {
+        int count = 0;
+        for (int value : source) {
+            int keep = 1;
+            for (int divisor : divisors) {
+                keep &= nonZero(value % divisor);
+            }
+            output[count] = value;
+            count += keep;
+        }
+        return count;
+    }
+
+    /**
+     * 与 FilterDataInDifferentWayBenchmark 中 forLoop 相同的五个条件，展开写死
+     */
+    public static int notDivisibleBy17To13(int[] source, int[] output) {
+        int count = 0;
+        for (int value : source) {
+            int keep = nonZero(value % 17)
+                    & nonZero(value % 16)
+                    & nonZero(value % 15)
+                    & nonZero(value % 14)
+                    & nonZero(value % 13);
+            output[count] = value;
+            count += keep;
+        }
+        return count;
+    }
+
+    /**
+     * 保留所有小于 bound 的值，返回保留个数
+     */
+    public static int lessThan(int[] source, int bound, int[] output) {
+        int count = 0;
+        for (int value : source) {
+            output[count] = value;
+            count += lessThan(value, bound);
+        }
+        return count;
+    }
+}
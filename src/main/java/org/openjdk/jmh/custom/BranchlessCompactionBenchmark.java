@@ -0,0 +1,118 @@
+package org.openjdk.jmh.custom;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.LinuxPerfNormProfiler;
+import org.openjdk.jmh.profile.ProfilerException;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 带分支的过滤循环与 BranchlessCompaction 的对比。
+ * <p>
+ * input 为 sorted 时数据升序，分支几乎总能预测对；为 random 时数据无序。
+ * lessThan 的阈值取中位数，保留率正好 50%，random 时是分支预测最差的情况；
+ * modChain 使用 FilterDataInDifferentWayBenchmark 中的五个取模条件，保留率约 70%。
+ * <p>
+ * 分支预测失败次数需要 perf 支持，运行 main 方法时如果 perf 可用会打开 perfnorm，否则只输出耗时；命令行则加上：
+ * <pre>
+ *    $ java -jar target/benchmarks.jar BranchlessCompactionBenchmark -prof perfnorm
+ * </pre>
+ * 关注输出中的 branch-misses（每次操作的分支预测失败次数）。
+ * 目前还没有在有 perf 的机器上记录过 branch-misses 的结果，无分支写法减少预测失败的说法尚待数据验证。
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-Xms1G", "-Xmx1G"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class BranchlessCompactionBenchmark {
+
+    private static final int COUNT = 1024 * 1024;
+
+    @Param({"sorted", "random"})
+    private String input;
+
+    private int[] values;
+    private int[] output;
+    private int median;
+
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.include(BranchlessCompactionBenchmark.class.getSimpleName());
+        try {
+            // 没有 perf 或 perf_event_paranoid 限制时构造函数会抛异常
+            new LinuxPerfNormProfiler("");
+            builder.addProfiler(LinuxPerfNormProfiler.class);
+        } catch (ProfilerException e) {
+            System.out.println("perfnorm is not available, branch-misses will not be reported: " + e.getMessage());
+        }
+        Options opt = builder.build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1234);
+        values = new int[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            values[i] = random.nextInt(Integer.MAX_VALUE);
+        }
+
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        median = sorted[COUNT / 2];
+        if ("sorted".equals(input)) {
+            values = sorted;
+        }
+        output = new int[COUNT];
+    }
+
+    @Benchmark
+    public int branchyLessThan() {
+        int[] output = this.output;
+        int bound = median;
+        int count = 0;
+        for (int value : values) {
+            if (value < bound) {
+                output[count++] = value;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int branchlessLessThan() {
+        return BranchlessCompaction.lessThan(values, median, output);
+    }
+
+    @Benchmark
+    public int branchyModChain() {
+        int[] output = this.output;
+        int count = 0;
+        for (int value : values) {
+            if (value % 17 != 0
+                    && value % 16 != 0
+                    && value % 15 != 0
+                    && value % 14 != 0
+                    && value % 13 != 0) {
+                output[count++] = value;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int branchlessModChain() {
+        return BranchlessCompaction.notDivisibleBy17To13(values, output);
+    }
+
+}
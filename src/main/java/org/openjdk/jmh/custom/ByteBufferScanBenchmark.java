@@ -0,0 +1,358 @@
+package org.openjdk.jmh.custom;
+
+import org.agrona.UnsafeAccess;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 顺序扫描整个缓冲区的吞吐量，与 {@link ByteBufferBenchmark} 的六种缓冲区一一对应。
+ * <p>
+ * 每种缓冲区三种读法：
+ * <ul>
+ * <li>getInt：逐个 int 读取</li>
+ * <li>bulk：每次批量拷贝 {@link #CHUNK_INTS} 个 int 到 int[] 再求和（ByteBuffer 通过 asIntBuffer().get(int[])，
+ * UnsafeBuffer 通过 Unsafe.copyMemory）</li>
+ * <li>getLong：每次读 8 个字节，把高低两半当作两个 int 相加</li>
+ * </ul>
+ * 三种读法的结果都是所有 int 的和，可以互相校验。ByteBuffer 统一使用本机字节序，与 UnsafeBuffer 一致，不计入字节交换的开销。
+ * 直接运行 main 方法会在最后按 bytes / 耗时 打印每种组合的 GB/s。
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms3G", "-Xmx3G"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(value = 1)
+public class ByteBufferScanBenchmark {
+
+    static final int CHUNK_INTS = 1024;
+
+    private static final long INT_ARRAY_BASE = UnsafeAccess.UNSAFE.arrayBaseOffset(int[].class);
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ByteBufferScanBenchmark.class.getSimpleName())
+                .build();
+
+        Collection<RunResult> results = new Runner(opt).run();
+
+        System.out.println();
+        System.out.println("Scan throughput:");
+        for (RunResult result : results) {
+            String benchmark = result.getParams().getBenchmark();
+            long bytes = Long.parseLong(result.getParams().getParam("bytes"));
+            double nanos = result.getPrimaryResult().getScore();
+            System.out.printf("%-30s bytes=%-11d %8.2f GB/s%n",
+                    benchmark.substring(benchmark.lastIndexOf('.') + 1), bytes, bytes / nanos);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Size {
+
+        @Param({"4096", "65536", "1048576", "16777216", "268435456", "1073741824"})
+        int bytes;
+    }
+
+    /**
+     * 每个线程一块 int[] 作为批量读取的目标
+     */
+    @State(Scope.Thread)
+    public static class Chunk {
+
+        int[] ints = new int[CHUNK_INTS];
+    }
+
+    @State(Scope.Thread)
+    public static class HeapByteBufferState {
+
+        ByteBuffer buffer;
+        IntBuffer ints;
+
+        @Setup
+        public void setup(Size size) {
+            buffer = fill(ByteBuffer.allocate(size.bytes));
+            ints = buffer.asIntBuffer();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class DirectByteBufferState {
+
+        ByteBuffer buffer;
+        IntBuffer ints;
+
+        @Setup
+        public void setup(Size size) {
+            buffer = fill(ByteBuffer.allocateDirect(size.bytes));
+            ints = buffer.asIntBuffer();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class MappedByteBufferState {
+
+        ByteBuffer buffer;
+        IntBuffer ints;
+        private File file;
+
+        @Setup
+        public void setup(Size size) throws IOException {
+            file = File.createTempFile("mappedbytebuffer", "scan");
+            try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+                randomAccessFile.setLength(size.bytes);
+                buffer = fill(randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size.bytes));
+            }
+            ints = buffer.asIntBuffer();
+        }
+
+        @TearDown
+        public void teardown() {
+            file.deleteOnExit();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class UnsafeBufferState {
+
+        UnsafeBuffer buffer;
+
+        @Setup
+        public void setup(Size size) {
+            buffer = new UnsafeBuffer(fill(ByteBuffer.allocateDirect(size.bytes)));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class HeapUnsafeByteBufferState {
+
+        UnsafeBuffer buffer;
+
+        @Setup
+        public void setup(Size size) {
+            buffer = new UnsafeBuffer(fill(ByteBuffer.allocate(size.bytes)));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ArrayState {
+
+        int[] buffer;
+
+        @Setup
+        public void setup(Size size) {
+            buffer = new int[size.bytes >>> 2];
+            for (int i = 0; i < buffer.length; i++) {
+                buffer[i] = i;
+            }
+        }
+    }
+
+    @Benchmark
+    public int heapGetInt(HeapByteBufferState state) {
+        return scanGetInt(state.buffer);
+    }
+
+    @Benchmark
+    public int heapBulk(HeapByteBufferState state, Chunk chunk) {
+        return scanBulk(state.ints, chunk.ints);
+    }
+
+    @Benchmark
+    public int heapGetLong(HeapByteBufferState state) {
+        return scanGetLong(state.buffer);
+    }
+
+    @Benchmark
+    public int directGetInt(DirectByteBufferState state) {
+        return scanGetInt(state.buffer);
+    }
+
+    @Benchmark
+    public int directBulk(DirectByteBufferState state, Chunk chunk) {
+        return scanBulk(state.ints, chunk.ints);
+    }
+
+    @Benchmark
+    public int directGetLong(DirectByteBufferState state) {
+        return scanGetLong(state.buffer);
+    }
+
+    @Benchmark
+    public int mappedGetInt(MappedByteBufferState state) {
+        return scanGetInt(state.buffer);
+    }
+
+    @Benchmark
+    public int mappedBulk(MappedByteBufferState state, Chunk chunk) {
+        return scanBulk(state.ints, chunk.ints);
+    }
+
+    @Benchmark
+    public int mappedGetLong(MappedByteBufferState state) {
+        return scanGetLong(state.buffer);
+    }
+
+    @Benchmark
+    public int unsafeDirectGetInt(UnsafeBufferState state) {
+        return scanGetInt(state.buffer);
+    }
+
+    @Benchmark
+    public int unsafeDirectBulk(UnsafeBufferState state, Chunk chunk) {
+        return scanBulk(state.buffer, chunk.ints);
+    }
+
+    @Benchmark
+    public int unsafeDirectGetLong(UnsafeBufferState state) {
+        return scanGetLong(state.buffer);
+    }
+
+    @Benchmark
+    public int unsafeHeapGetInt(HeapUnsafeByteBufferState state) {
+        return scanGetInt(state.buffer);
+    }
+
+    @Benchmark
+    public int unsafeHeapBulk(HeapUnsafeByteBufferState state, Chunk chunk) {
+        return scanBulk(state.buffer, chunk.ints);
+    }
+
+    @Benchmark
+    public int unsafeHeapGetLong(HeapUnsafeByteBufferState state) {
+        return scanGetLong(state.buffer);
+    }
+
+    @Benchmark
+    public int arrayGetInt(ArrayState state) {
+        int[] buffer = state.buffer;
+        int sum = 0;
+        for (int value : buffer) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int arrayBulk(ArrayState state, Chunk chunk) {
+        int[] buffer = state.buffer;
+        int[] ints = chunk.ints;
+        int sum = 0;
+        for (int from = 0; from < buffer.length; from += ints.length) {
+            int n = Math.min(ints.length, buffer.length - from);
+            System.arraycopy(buffer, from, ints, 0, n);
+            sum += sum(ints, n);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int arrayGetLong(ArrayState state) {
+        int[] buffer = state.buffer;
+        long end = INT_ARRAY_BASE + ((long) buffer.length << 2);
+        int sum = 0;
+        for (long offset = INT_ARRAY_BASE; offset < end; offset += Long.BYTES) {
+            long word = UnsafeAccess.UNSAFE.getLong(buffer, offset);
+            sum += (int) word + (int) (word >>> 32);
+        }
+        return sum;
+    }
+
+    /**
+     * 按本机字节序写入 0, 1, 2 ...，与 ArrayState 的内容相同
+     */
+    static ByteBuffer fill(ByteBuffer buffer) {
+        buffer.order(ByteOrder.nativeOrder());
+        int limit = buffer.capacity();
+        for (int i = 0; i < limit; i += Integer.BYTES) {
+            buffer.putInt(i, i >>> 2);
+        }
+        return buffer;
+    }
+
+    private static int scanGetInt(ByteBuffer buffer) {
+        int limit = buffer.capacity();
+        int sum = 0;
+        for (int i = 0; i < limit; i += Integer.BYTES) {
+            sum += buffer.getInt(i);
+        }
+        return sum;
+    }
+
+    private static int scanGetLong(ByteBuffer buffer) {
+        int limit = buffer.capacity();
+        int sum = 0;
+        for (int i = 0; i < limit; i += Long.BYTES) {
+            long word = buffer.getLong(i);
+            sum += (int) word + (int) (word >>> 32);
+        }
+        return sum;
+    }
+
+    private static int scanBulk(IntBuffer view, int[] ints) {
+        view.clear();
+        int sum = 0;
+        while (view.hasRemaining()) {
+            int n = Math.min(ints.length, view.remaining());
+            view.get(ints, 0, n);
+            sum += sum(ints, n);
+        }
+        return sum;
+    }
+
+    private static int scanGetInt(UnsafeBuffer buffer) {
+        int limit = buffer.capacity();
+        int sum = 0;
+        for (int i = 0; i < limit; i += Integer.BYTES) {
+            sum += buffer.getInt(i);
+        }
+        return sum;
+    }
+
+    private static int scanGetLong(UnsafeBuffer buffer) {
+        int limit = buffer.capacity();
+        int sum = 0;
+        for (int i = 0; i < limit; i += Long.BYTES) {
+            long word = buffer.getLong(i);
+            sum += (int) word + (int) (word >>> 32);
+        }
+        return sum;
+    }
+
+    private static int scanBulk(UnsafeBuffer buffer, int[] ints) {
+        byte[] array = buffer.byteArray();
+        long address = buffer.addressOffset();
+        int limit = buffer.capacity();
+        int sum = 0;
+        for (int from = 0; from < limit; from += ints.length << 2) {
+            int n = Math.min(ints.length, (limit - from) >>> 2);
+            UnsafeAccess.UNSAFE.copyMemory(array, address + from, ints, INT_ARRAY_BASE, (long) n << 2);
+            sum += sum(ints, n);
+        }
+        return sum;
+    }
+
+    private static int sum(int[] ints, int n) {
+        int sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += ints[i];
+        }
+        return sum;
+    }
+}
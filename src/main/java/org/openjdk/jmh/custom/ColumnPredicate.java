@@ -0,0 +1,100 @@
+package org.openjdk.jmh.custom;
+
+/**
+ * 作用在某一列上的谓词，按批次处理，通过选择向量（存活行号数组）逐步缩小结果。
+ * <p>
+ * 每批只有一次虚调用，循环体在各个实现类内部，JIT 可以针对每种谓词单独编译出紧凑的循环。
+ */
+public interface ColumnPredicate {
+
+    /**
+     * 谓词作用的列
+     */
+    int column();
+
+    /**
+     * 对 values[from, to) 中的所有行求值，把满足条件的行号写入 selection，返回个数
+     */
+    int select(int[] values, int from, int to, int[] selection);
+
+    /**
+     * 只对 selection[0, size) 中的行求值，满足条件的行号原地压缩到 selection 前部，返回新的个数
+     */
+    int refine(int[] values, int[] selection, int size);
+
+    static ColumnPredicate notDivisibleBy(int column, int divisor) {
+        if (divisor == 0) {
+            throw new IllegalArgumentException("divisor must not be zero");
+        }
+        return new ColumnPredicate() {
+            @Override
+            public int column() {
+                return column;
+            }
+
+            @Override
+            public int select(int[] values, int from, int to, int[] selection) {
+                int count = 0;
+                for (int i = from; i < to; i++) {
+                    if (values[i] % divisor != 0) {
+                        selection[count++] = i;
+                    }
+                }
+                return count;
+            }
+
+            @Override
+            public int refine(int[] values, int[] selection, int size) {
+                int count = 0;
+                for (int i = 0; i < size; i++) {
+                    int row = selection[i];
+                    if (values[row] % divisor != 0) {
+                        selection[count++] = row;
+                    }
+                }
+                return count;
+            }
+        };
+    }
+
+    /**
+     * from &lt;= value &lt;= to
+     */
+    static ColumnPredicate between(int column, int from, int to) {
+        return new ColumnPredicate() {
+            @Override
+            public int column() {
+                return column;
+            }
+
+            @Override
+            public int select(int[] values, int start, int end, int[] selection) {
+                int count = 0;
+                for (int i = start; i < end; i++) {
+                    int value = values[i];
+                    if (value >= from && value <= to) {
+                        selection[count++] = i;
+                    }
+                }
+                return count;
+            }
+
+            @Override
+            public int refine(int[] values, int[] selection, int size) {
+                int count = 0;
+                for (int i = 0; i < size; i++) {
+                    int row = selection[i];
+                    int value = values[row];
+                    if (value >= from && value <= to) {
+                        selection[count++] = row;
+                    }
+                }
+                return count;
+            }
+        };
+    }
+
+    static ColumnPredicate equalTo(int column, int constant) {
+        return between(column, constant, constant);
+    }
+}
@@ -0,0 +1,65 @@
+package org.openjdk.jmh.custom;
+
+import java.util.List;
+
+/**
+ * 列式批量过滤：按 {@link #BATCH_SIZE} 行一批，每个谓词只缩小选择向量，不生成中间结果列表。
+ * <p>
+ * 列直接以 int[] 传入，一批就是各列上同一段 [from, from + BATCH_SIZE) 的视图，不做拷贝；
+ * 选择向量保存的是绝对行号，所有谓词处理完后再按行号把需要的列收集到输出。
+ * 内部复用一个选择向量，不是线程安全的，每个线程应使用自己的实例。
+ */
+public class ColumnarFilter {
+
+    static final int BATCH_SIZE = 1024;
+
+    private final ColumnPredicate[] predicates;
+    private final int[] selection = new int[BATCH_SIZE];
+
+    public ColumnarFilter(List<ColumnPredicate> predicates) {
+        if (predicates.isEmpty()) {
+            throw new IllegalArgumentException("at least one predicate is required");
+        }
+        this.predicates = predicates.toArray(new ColumnPredicate[0]);
+    }
+
+    /**
+     * 对 columns 的前 rowCount 行过滤，满足全部谓词的行的 outputColumn 值写入 output，返回行数
+     */
+    public int filter(int[][] columns, int rowCount, int outputColumn, int[] output) {
+        int[] values = columns[outputColumn];
+        int[] selection = this.selection;
+        int count = 0;
+        for (int from = 0; from < rowCount; from += BATCH_SIZE) {
+            int size = selectBatch(columns, from, Math.min(rowCount, from + BATCH_SIZE));
+            for (int i = 0; i < size; i++) {
+                output[count++] = values[selection[i]];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 只统计满足全部谓词的行数
+     */
+    public int count(int[][] columns, int rowCount) {
+        int count = 0;
+        for (int from = 0; from < rowCount; from += BATCH_SIZE) {
+            count += selectBatch(columns, from, Math.min(rowCount, from + BATCH_SIZE));
+        }
+        return count;
+    }
+
+    private int selectBatch(int[][] columns, int from, int to) {
+        ColumnPredicate[] predicates = this.predicates;
+        int[] selection = this.selection;
+
+        ColumnPredicate first = predicates[0];
+        int size = first.select(columns[first.column()], from, to, selection);
+        for (int p = 1; p < predicates.length && size > 0; p++) {
+            ColumnPredicate predicate = predicates[p];
+            size = predicate.refine(columns[predicate.column()], selection, size);
+        }
+        return size;
+    }
+}
@@ -0,0 +1,144 @@
+package org.openjdk.jmh.custom;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 多列谓词下，列式批量过滤（选择向量）与按行处理的对比；单列场景见 FilterLargeDataBenchmark.columnarFilter。
+ * <p>
+ * 三列随机数据，条件为 a % 17 != 0 && 0 &lt;= b &lt;= 2^29 && c % 13 != 0 && a % 16 != 0，输出满足条件的行的 a 列。
+ * 按行处理分别用 Stream（装箱的行对象）和手写 for 循环实现；rowEachFilter 对应
+ * FilterDataInDifferentWayBenchmark.eachFilter，每个谓词单独跑一遍 Stream 并生成新的 List。
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-Xms4G", "-Xmx4G"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ColumnarFilterBenchmark {
+
+    private static final int B_MAX = 1 << 29;
+
+    @Param({"1000000", "10000000"})
+    private int size;
+
+    private int[] a;
+    private int[] b;
+    private int[] c;
+    private int[][] columns;
+    private int[] output;
+
+    private List<Row> rows;
+    private ColumnarFilter columnarFilter;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ColumnarFilterBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    static final class Row {
+
+        final int a;
+        final int b;
+        final int c;
+
+        Row(int a, int b, int c) {
+            this.a = a;
+            this.b = b;
+            this.c = c;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42L);
+        a = new int[size];
+        b = new int[size];
+        c = new int[size];
+        rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            a[i] = random.nextInt(Integer.MAX_VALUE);
+            b[i] = random.nextInt(Integer.MAX_VALUE);
+            c[i] = random.nextInt(Integer.MAX_VALUE);
+            rows.add(new Row(a[i], b[i], c[i]));
+        }
+        columns = new int[][]{a, b, c};
+        output = new int[size];
+
+        columnarFilter = new ColumnarFilter(Arrays.asList(
+                ColumnPredicate.notDivisibleBy(0, 17),
+                ColumnPredicate.between(1, 0, B_MAX),
+                ColumnPredicate.notDivisibleBy(2, 13),
+                ColumnPredicate.notDivisibleBy(0, 16)));
+    }
+
+    @Benchmark
+    public List<Integer> rowStream() {
+        return rows.stream()
+                .filter(row -> row.a % 17 != 0)
+                .filter(row -> row.b >= 0 && row.b <= B_MAX)
+                .filter(row -> row.c % 13 != 0)
+                .filter(row -> row.a % 16 != 0)
+                .map(row -> row.a)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Integer> rowEachFilter() {
+        List<Row> filter1 = rows.stream()
+                .filter(row -> row.a % 17 != 0)
+                .collect(Collectors.toList());
+
+        List<Row> filter2 = filter1.stream()
+                .filter(row -> row.b >= 0 && row.b <= B_MAX)
+                .collect(Collectors.toList());
+
+        List<Row> filter3 = filter2.stream()
+                .filter(row -> row.c % 13 != 0)
+                .collect(Collectors.toList());
+
+        return filter3.stream()
+                .filter(row -> row.a % 16 != 0)
+                .map(row -> row.a)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public int rowForLoop() {
+        int[] a = this.a;
+        int[] b = this.b;
+        int[] c = this.c;
+        int[] output = this.output;
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (a[i] % 17 != 0
+                    && b[i] >= 0 && b[i] <= B_MAX
+                    && c[i] % 13 != 0
+                    && a[i] % 16 != 0) {
+                output[count++] = a[i];
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int columnarFilter() {
+        return columnarFilter.filter(columns, size, 0, output);
+    }
+
+}
@@ -0,0 +1,207 @@
+package org.openjdk.jmh.custom;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多个读线程 + 一个写线程并发访问同一个集合，参考 JMHSample_15_Asymmetric。
+ * <p>
+ * 每个 group 默认 3 个读线程、1 个写线程，可以通过 -tg 调整，例如 "-tg 63,1" 即 63 读 1 写。
+ * 读线程按命中率探测；写线程模拟 "攒一批再发布" 的更新方式：每次把 batchSize 个不在原始数据中的 key 作为一批加入，
+ * 所有批次加完之后整体换回原始数据，CopyOnWriteIntSet 分别对应 addAll 和 replace，另外两种集合逐个 add / remove。
+ * 每发布一批之后写线程空转 writePauseTokens（Blackhole.consumeCPU），把写入频率限制在读多写少的水平，
+ * 所以写线程自己的得分主要是这段停顿，应该关注的是读线程的得分。
+ */
+
+@BenchmarkMode({Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms1G", "-Xmx1G"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ConcurrentIntSetBenchmark {
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ConcurrentIntSetBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @State(Scope.Benchmark)
+    public static class Data extends IntSetBenchmarkData.ContainsData {
+
+        @Param({"10000", "1000000"})
+        int size;
+
+        @Param({"0.5"})
+        double hitRatio;
+
+        @Param({"256"})
+        int batchSize;
+
+        @Param({"100000"})
+        long writePauseTokens;
+
+        /**
+         * spares 按 batchSize 切成的批次，写线程使用，全部不在 keys 中
+         */
+        int[][] batches;
+
+        @Override
+        int size() {
+            return size;
+        }
+
+        @Override
+        double hitRatio() {
+            return hitRatio;
+        }
+
+        @Override
+        int spareCount() {
+            return IntSetBenchmarkData.PROBE_COUNT;
+        }
+
+        @Override
+        void generate() {
+            super.generate();
+            batches = new int[spares.length / batchSize][];
+            for (int i = 0; i < batches.length; i++) {
+                batches[i] = new int[batchSize];
+                System.arraycopy(spares, i * batchSize, batches[i], 0, batchSize);
+            }
+        }
+
+        /**
+         * 写线程本次要做的步骤：[0, batches.length) 为加入对应批次，batches.length 为换回原始数据
+         */
+        int nextStep(Cursor cursor) {
+            return cursor.index++ % (batches.length + 1);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        int index;
+
+        int nextProbe(Data data) {
+            return data.probe(index++);
+        }
+    }
+
+    @State(Scope.Group)
+    public static class CopyOnWriteState {
+
+        CopyOnWriteIntSet set;
+
+        @Setup
+        public void setUp(Data data) {
+            set = new CopyOnWriteIntSet(data.keys);
+        }
+    }
+
+    @State(Scope.Group)
+    public static class ConcurrentHashMapState {
+
+        Set<Integer> set;
+
+        @Setup
+        public void setUp(Data data) {
+            set = ConcurrentHashMap.newKeySet(data.size * 2);
+            for (int key : data.keys) {
+                set.add(key);
+            }
+        }
+    }
+
+    @State(Scope.Group)
+    public static class SynchronizedSetState {
+
+        Set<Integer> set;
+
+        @Setup
+        public void setUp(Data data) {
+            set = Collections.synchronizedSet(new HashSet<>(data.size * 2));
+            for (int key : data.keys) {
+                set.add(key);
+            }
+        }
+    }
+
+    @Benchmark
+    @Group("copyOnWrite")
+    @GroupThreads(3)
+    public boolean copyOnWriteRead(Data data, Cursor cursor, CopyOnWriteState state) {
+        return state.set.contains(cursor.nextProbe(data));
+    }
+
+    @Benchmark
+    @Group("copyOnWrite")
+    @GroupThreads(1)
+    public int copyOnWriteWrite(Data data, Cursor cursor, CopyOnWriteState state) {
+        int step = data.nextStep(cursor);
+        if (step < data.batches.length) {
+            state.set.addAll(data.batches[step]);
+        } else {
+            state.set.replace(data.keys);
+        }
+        Blackhole.consumeCPU(data.writePauseTokens);
+        return step;
+    }
+
+    @Benchmark
+    @Group("concurrentHashMap")
+    @GroupThreads(3)
+    public boolean concurrentHashMapRead(Data data, Cursor cursor, ConcurrentHashMapState state) {
+        return state.set.contains(cursor.nextProbe(data));
+    }
+
+    @Benchmark
+    @Group("concurrentHashMap")
+    @GroupThreads(1)
+    public int concurrentHashMapWrite(Data data, Cursor cursor, ConcurrentHashMapState state) {
+        return writeBatch(data, cursor, state.set);
+    }
+
+    @Benchmark
+    @Group("synchronizedSet")
+    @GroupThreads(3)
+    public boolean synchronizedSetRead(Data data, Cursor cursor, SynchronizedSetState state) {
+        return state.set.contains(cursor.nextProbe(data));
+    }
+
+    @Benchmark
+    @Group("synchronizedSet")
+    @GroupThreads(1)
+    public int synchronizedSetWrite(Data data, Cursor cursor, SynchronizedSetState state) {
+        return writeBatch(data, cursor, state.set);
+    }
+
+    private static int writeBatch(Data data, Cursor cursor, Set<Integer> set) {
+        int step = data.nextStep(cursor);
+        if (step < data.batches.length) {
+            for (int key : data.batches[step]) {
+                set.add(key);
+            }
+        } else {
+            for (int key : data.spares) {
+                set.remove(key);
+            }
+        }
+        Blackhole.consumeCPU(data.writePauseTokens);
+        return step;
+    }
+
+}
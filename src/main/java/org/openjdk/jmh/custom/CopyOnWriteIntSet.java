@@ -0,0 +1,78 @@
+package org.openjdk.jmh.custom;
+
+/**
+ * 读多写少的并发 int 集合。
+ * <p>
+ * 读线程只做一次 volatile 读拿到当前快照，然后在不可变的 {@link IntOpenHashSet} 上查询，全程无锁；
+ * 写操作复制快照、修改副本，再通过 volatile 写发布新版本。写操作之间用 synchronized 串行化，
+ * 适合 "一个更新线程定期换入新数据，大量线程并发读" 的场景。单次写的代价是 O(n)，
+ * 批量更新请用 {@link #addAll(int[])} 或 {@link #replace(int[])}。
+ */
+public class CopyOnWriteIntSet {
+
+    private volatile IntOpenHashSet snapshot;
+
+    public CopyOnWriteIntSet() {
+        this.snapshot = new IntOpenHashSet();
+    }
+
+    public CopyOnWriteIntSet(int[] keys) {
+        this.snapshot = build(keys);
+    }
+
+    private static IntOpenHashSet build(int[] keys) {
+        IntOpenHashSet set = new IntOpenHashSet(keys.length);
+        for (int key : keys) {
+            set.add(key);
+        }
+        return set;
+    }
+
+    public boolean contains(int key) {
+        return snapshot.contains(key);
+    }
+
+    public int size() {
+        return snapshot.size();
+    }
+
+    public synchronized boolean add(int key) {
+        IntOpenHashSet current = snapshot;
+        if (current.contains(key)) {
+            return false;
+        }
+        IntOpenHashSet next = current.copy();
+        next.add(key);
+        snapshot = next;
+        return true;
+    }
+
+    public synchronized boolean remove(int key) {
+        IntOpenHashSet current = snapshot;
+        if (!current.contains(key)) {
+            return false;
+        }
+        IntOpenHashSet next = current.copy();
+        next.remove(key);
+        snapshot = next;
+        return true;
+    }
+
+    /**
+     * 一次复制完成整批新增
+     */
+    public synchronized void addAll(int[] keys) {
+        IntOpenHashSet next = snapshot.copy();
+        for (int key : keys) {
+            next.add(key);
+        }
+        snapshot = next;
+    }
+
+    /**
+     * 用一份全新的数据整体替换当前内容，不需要复制旧快照
+     */
+    public synchronized void replace(int[] keys) {
+        snapshot = build(keys);
+    }
+}
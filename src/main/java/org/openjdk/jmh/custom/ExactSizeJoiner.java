@@ -0,0 +1,55 @@
+package org.openjdk.jmh.custom;
+
+import java.util.List;
+
+/**
+ * 两遍拼接：第一遍累加所有片段的长度，第二遍用 getChars 把片段依次拷贝进长度刚好的 char[]。
+ * <p>
+ * 按 iterations * 5 猜容量时，猜小了要反复扩容拷贝，猜大了浪费内存；这里数组长度是精确的，不会扩容。
+ * 片段只拷贝一次到 char[]，但 new String(char[]) 还会再复制一次数组，这是公开 API 无法避免的；
+ * JDK 9 之后的紧凑字符串里，全是 Latin1 的片段还要先膨胀成 char[]，在 new String 时再压缩回 byte[]。
+ */
+public final class ExactSizeJoiner {
+
+    private ExactSizeJoiner() {
+    }
+
+    public static String join(List<? extends CharSequence> fragments) {
+        return join(fragments, 0, fragments.size());
+    }
+
+    /**
+     * 拼接 fragments 中 [from, to) 范围内的片段
+     */
+    public static String join(List<? extends CharSequence> fragments, int from, int to) {
+        long total = 0;
+        for (int i = from; i < to; i++) {
+            total += fragments.get(i).length();
+        }
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("joined length is too large: " + total);
+        }
+
+        char[] chars = new char[(int) total];
+        int pos = 0;
+        for (int i = from; i < to; i++) {
+            CharSequence fragment = fragments.get(i);
+            int length = fragment.length();
+            getChars(fragment, length, chars, pos);
+            pos += length;
+        }
+        return new String(chars);
+    }
+
+    private static void getChars(CharSequence fragment, int length, char[] dst, int pos) {
+        if (fragment instanceof String) {
+            ((String) fragment).getChars(0, length, dst, pos);
+        } else if (fragment instanceof StringBuilder) {
+            ((StringBuilder) fragment).getChars(0, length, dst, pos);
+        } else {
+            for (int i = 0; i < length; i++) {
+                dst[pos + i] = fragment.charAt(i);
+            }
+        }
+    }
+}
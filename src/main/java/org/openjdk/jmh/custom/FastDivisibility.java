@@ -0,0 +1,64 @@
+package org.openjdk.jmh.custom;
+
+/**
+ * 针对固定除数预先计算乘法逆元，用乘法代替除法回答 "能否整除" 和 "取模" 的问题（Lemire 等人的方法）。
+ * <p>
+ * 对 32 位无符号数 n 和除数 d，令 c = ceil(2^64 / d)：
+ * <ul>
+ * <li>n 能被 d 整除，当且仅当 (c * n mod 2^64) &lt;= c - 1（按无符号比较），只需要一次 64 位乘法</li>
+ * <li>n mod d = ((c * n mod 2^64) * d) &gt;&gt; 64，其中 128 位乘积的高 64 位用两次 32x32 位乘法拼出来，兼容 Java 8</li>
+ * </ul>
+ * 注意：除数是编译期常量时（例如 {@code value % 17}），JIT 已经会把除法替换成乘法，
+ * 这个类针对的是运行时才确定的除数（分片数、桶数等）。
+ */
+public final class FastDivisibility {
+
+    private static final long LOW_32_BITS = 0xFFFFFFFFL;
+
+    private final int divisor;
+    private final long multiplier;
+
+    public FastDivisibility(int divisor) {
+        if (divisor <= 0) {
+            throw new IllegalArgumentException("divisor must be positive: " + divisor);
+        }
+        this.divisor = divisor;
+        // ceil(2^64 / d) = floor((2^64 - 1) / d) + 1，d = 1 时溢出为 0，下面两个公式依然成立
+        this.multiplier = Long.divideUnsigned(-1L, divisor) + 1;
+    }
+
+    public int divisor() {
+        return divisor;
+    }
+
+    /**
+     * 等价于 {@code value % divisor == 0}，负数同样适用
+     */
+    public boolean isDivisible(int value) {
+        long n = Math.abs(value) & LOW_32_BITS;
+        return Long.compareUnsigned(multiplier * n, multiplier - 1) <= 0;
+    }
+
+    /**
+     * 把 value 当作无符号数取模，等价于 {@link Integer#remainderUnsigned(int, int)}
+     */
+    public int modUnsigned(int value) {
+        return fastMod(value & LOW_32_BITS);
+    }
+
+    /**
+     * 等价于 {@code value % divisor}，结果的符号与 value 相同
+     */
+    public int mod(int value) {
+        int r = fastMod(Math.abs(value) & LOW_32_BITS);
+        return value < 0 ? -r : r;
+    }
+
+    private int fastMod(long n) {
+        long lowBits = multiplier * n;
+        // 128 位乘积 lowBits * divisor 的高 64 位
+        long high = (lowBits >>> 32) * divisor;
+        long low = (lowBits & LOW_32_BITS) * divisor;
+        return (int) ((high + (low >>> 32)) >>> 32);
+    }
+}
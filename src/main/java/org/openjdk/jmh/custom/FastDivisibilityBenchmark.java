@@ -0,0 +1,105 @@
+package org.openjdk.jmh.custom;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 除数在运行时才确定时，% 运算（idiv）与 FastDivisibility 的对比。
+ * <p>
+ * divisor 是普通字段而不是常量，JIT 无法自己把除法替换成乘法；
+ * range 为 small 时输入在 [0, 1000) 内，为 full 时覆盖整个 int 范围（含负数）。
+ * 结果为每个元素的平均耗时。
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-Xms1G", "-Xmx1G"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class FastDivisibilityBenchmark {
+
+    private static final int COUNT = 64 * 1024;
+
+    @Param({"3", "13", "1000", "65537", "2147483647"})
+    private int divisor;
+
+    @Param({"small", "full"})
+    private String range;
+
+    private int[] values;
+    private FastDivisibility fast;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(FastDivisibilityBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42L);
+        values = new int[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            values[i] = "small".equals(range) ? random.nextInt(1000) : random.nextInt();
+        }
+        fast = new FastDivisibility(divisor);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public int idivMod() {
+        int divisor = this.divisor;
+        int sum = 0;
+        for (int value : values) {
+            sum += value % divisor;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public int fastMod() {
+        FastDivisibility fast = this.fast;
+        int sum = 0;
+        for (int value : values) {
+            sum += fast.mod(value);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public int idivIsDivisible() {
+        int divisor = this.divisor;
+        int count = 0;
+        for (int value : values) {
+            if (value % divisor == 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public int fastIsDivisible() {
+        FastDivisibility fast = this.fast;
+        int count = 0;
+        for (int value : values) {
+            if (fast.isDivisible(value)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+}
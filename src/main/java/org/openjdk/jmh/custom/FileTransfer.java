@@ -0,0 +1,126 @@
+package org.openjdk.jmh.custom;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 把文件的一段内容写到任意 WritableByteChannel（socket、pipe 等），支持三种方式：
+ * <ul>
+ * <li>{@link Mode#HEAP_COPY}：读到堆内 ByteBuffer 再写出，JDK 内部还会经过一次临时 direct buffer 拷贝</li>
+ * <li>{@link Mode#DIRECT_COPY}：读到 direct ByteBuffer 再写出，内核和用户态之间各拷贝一次</li>
+ * <li>{@link Mode#TRANSFER_TO}：{@link FileChannel#transferTo}，Linux 上走 sendfile，数据不经过用户态</li>
+ * </ul>
+ * target 应处于阻塞模式。非阻塞或者卡住的 target 可能一次写不出任何数据，这时按指数退避等待，
+ * 连续 {@link #MAX_STALLS} 次没有进展就抛出 IOException，不会无限空转。
+ * 缓冲区在构造时分配一次，之后复用；不是线程安全的。
+ */
+public class FileTransfer {
+
+    public enum Mode {
+        HEAP_COPY,
+        DIRECT_COPY,
+        TRANSFER_TO
+    }
+
+    /**
+     * 连续没有进展的最大次数，退避时间从 1 微秒翻倍到 1 毫秒封顶，总共大约等待 1 秒
+     */
+    static final int MAX_STALLS = 1000;
+
+    private static final long MIN_BACKOFF_NANOS = 1_000L;
+    private static final long MAX_BACKOFF_NANOS = 1_000_000L;
+
+    private final Mode mode;
+    private final ByteBuffer buffer;
+
+    /**
+     * bufferBytes 为两种拷贝方式每次读写的大小，TRANSFER_TO 不使用缓冲区
+     */
+    public FileTransfer(Mode mode, int bufferBytes) {
+        if (bufferBytes <= 0) {
+            throw new IllegalArgumentException("bufferBytes must be positive: " + bufferBytes);
+        }
+        this.mode = mode;
+        switch (mode) {
+            case HEAP_COPY:
+                this.buffer = ByteBuffer.allocate(bufferBytes);
+                break;
+            case DIRECT_COPY:
+                this.buffer = ByteBuffer.allocateDirect(bufferBytes);
+                break;
+            default:
+                this.buffer = null;
+        }
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    /**
+     * 把 source 中 [position, position + count) 写到 target，返回写出的字节数；
+     * 文件比 position + count 短时只写到文件末尾
+     */
+    public long transfer(FileChannel source, long position, long count, WritableByteChannel target) throws IOException {
+        return mode == Mode.TRANSFER_TO
+                ? transferTo(source, position, count, target)
+                : copy(source, position, count, target);
+    }
+
+    private static long transferTo(FileChannel source, long position, long count, WritableByteChannel target)
+            throws IOException {
+        long transferred = 0;
+        int stalls = 0;
+        while (transferred < count) {
+            // 一次调用可能只传输一部分（例如 Linux 上单次最多约 2GB）
+            long n = source.transferTo(position + transferred, count - transferred, target);
+            if (n <= 0) {
+                if (position + transferred >= source.size()) {
+                    break;
+                }
+                backOff(++stalls);
+                continue;
+            }
+            stalls = 0;
+            transferred += n;
+        }
+        return transferred;
+    }
+
+    private long copy(FileChannel source, long position, long count, WritableByteChannel target) throws IOException {
+        ByteBuffer buffer = this.buffer;
+        long transferred = 0;
+        while (transferred < count) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), count - transferred));
+            int read = source.read(buffer, position + transferred);
+            if (read < 0) {
+                break;
+            }
+            buffer.flip();
+            int stalls = 0;
+            while (buffer.hasRemaining()) {
+                if (target.write(buffer) > 0) {
+                    stalls = 0;
+                } else {
+                    backOff(++stalls);
+                }
+            }
+            transferred += read;
+        }
+        return transferred;
+    }
+
+    /**
+     * 第 stalls 次连续没有进展时调用：超过 MAX_STALLS 抛异常，否则按指数退避等待
+     */
+    private static void backOff(int stalls) throws IOException {
+        if (stalls > MAX_STALLS) {
+            throw new IOException("target made no progress after " + MAX_STALLS + " attempts");
+        }
+        LockSupport.parkNanos(Math.min(MAX_BACKOFF_NANOS, MIN_BACKOFF_NANOS << Math.min(stalls - 1, 10)));
+    }
+}
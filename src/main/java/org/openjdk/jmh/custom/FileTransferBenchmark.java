@@ -0,0 +1,220 @@
+package org.openjdk.jmh.custom;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.Pipe;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 把整个文件发送到本机的 socket 或 pipe，比较 {@link FileTransfer} 的三种方式。
+ * <p>
+ * 接收端是一个后台线程，读出数据直接丢弃；每次操作都要等接收端收齐 bytes 个字节才结束，所以测的是端到端的耗时。
+ * CPU 时间包括发送线程和接收线程，通过 {@link CpuCounters} 按次累加（每次操作多两次 ThreadMXBean 调用，
+ * 4KB 时会有一定影响）。直接运行 main 方法会在最后打印 MB/s 和每个字节的 CPU 时间。
+ * 2GB 的文件需要同样大小的磁盘空间。
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms1G", "-Xmx1G"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(value = 1)
+public class FileTransferBenchmark {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(FileTransferBenchmark.class.getSimpleName())
+                .build();
+
+        Collection<RunResult> results = new Runner(opt).run();
+
+        System.out.println();
+        System.out.println("Throughput and CPU time per byte:");
+        for (RunResult result : results) {
+            long bytes = Long.parseLong(result.getParams().getParam("bytes"));
+            double micros = result.getPrimaryResult().getScore();
+            Result<?> cpuNanos = result.getSecondaryResults().get("cpuNanos");
+            Result<?> transferred = result.getSecondaryResults().get("transferredBytes");
+            double cpuPerByte = cpuNanos == null || transferred == null
+                    ? Double.NaN : cpuNanos.getScore() / transferred.getScore();
+            System.out.printf("%-12s sink=%-7s bytes=%-11d %10.1f MB/s %8.4f ns/byte%n",
+                    result.getParams().getParam("mode"),
+                    result.getParams().getParam("sink"),
+                    bytes,
+                    bytes / micros,
+                    cpuPerByte);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Source {
+
+        @Param({"4096", "1048576", "67108864", "2147483648"})
+        long bytes;
+
+        File file;
+        RandomAccessFile randomAccessFile;
+        FileChannel channel;
+
+        @Setup
+        public void setUp() throws IOException {
+            file = File.createTempFile("filetransfer", "blob");
+            randomAccessFile = new RandomAccessFile(file, "rw");
+            channel = randomAccessFile.getChannel();
+            ByteBuffer block = ByteBuffer.allocateDirect(1 << 20);
+            for (int i = 0; i < block.capacity(); i++) {
+                block.put(i, (byte) i);
+            }
+            long written = 0;
+            while (written < bytes) {
+                block.clear();
+                block.limit((int) Math.min(block.capacity(), bytes - written));
+                written += channel.write(block, written);
+            }
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            channel.close();
+            randomAccessFile.close();
+            file.delete();
+        }
+    }
+
+    /**
+     * 发送端通道 + 后台接收线程
+     */
+    @State(Scope.Benchmark)
+    public static class Sink {
+
+        @Param({"socket", "pipe"})
+        String sink;
+
+        WritableByteChannel target;
+        private ReadableByteChannel receiving;
+        private ServerSocketChannel server;
+
+        private Thread drainer;
+        volatile long received;
+        volatile long drainerCpuNanos;
+
+        @Setup
+        public void setUp() throws IOException {
+            if ("socket".equals(sink)) {
+                server = ServerSocketChannel.open();
+                server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+                SocketChannel client = SocketChannel.open(server.getLocalAddress());
+                receiving = server.accept();
+                target = client;
+            } else {
+                Pipe pipe = Pipe.open();
+                receiving = pipe.source();
+                target = pipe.sink();
+            }
+            drainer = new Thread(this::drain, "file-transfer-drainer");
+            drainer.setDaemon(true);
+            drainer.start();
+        }
+
+        @TearDown
+        public void tearDown() throws IOException, InterruptedException {
+            target.close();
+            drainer.join(TimeUnit.SECONDS.toMillis(10));
+            receiving.close();
+            if (server != null) {
+                server.close();
+            }
+        }
+
+        /**
+         * 等待接收端收到 expected 个字节为止
+         */
+        void awaitReceived(long expected) {
+            while (received < expected) {
+                Thread.yield();
+            }
+        }
+
+        private void drain() {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(256 * 1024);
+            try {
+                int read;
+                while ((read = receiving.read(buffer)) >= 0) {
+                    buffer.clear();
+                    drainerCpuNanos = THREADS.getCurrentThreadCpuTime();
+                    received += read;
+                }
+            } catch (IOException e) {
+                // 通道已关闭
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Transfer {
+
+        @Param({"HEAP_COPY", "DIRECT_COPY", "TRANSFER_TO"})
+        FileTransfer.Mode mode;
+
+        FileTransfer transfer;
+
+        @Setup
+        public void setUp() {
+            transfer = new FileTransfer(mode, 256 * 1024);
+        }
+    }
+
+    /**
+     * 每轮迭代累计的 CPU 时间（发送线程 + 接收线程）和传输的字节数
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class CpuCounters {
+
+        public long cpuNanos;
+        public long transferredBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            cpuNanos = 0;
+            transferredBytes = 0;
+        }
+    }
+
+    @Benchmark
+    public long transfer(Source source, Sink sink, Transfer transfer, CpuCounters counters) throws IOException {
+        long senderCpu = THREADS.getCurrentThreadCpuTime();
+        long drainerCpu = sink.drainerCpuNanos;
+        long expected = sink.received + source.bytes;
+
+        long sent = transfer.transfer.transfer(source.channel, 0, source.bytes, sink.target);
+        sink.awaitReceived(expected);
+
+        counters.cpuNanos += THREADS.getCurrentThreadCpuTime() - senderCpu + sink.drainerCpuNanos - drainerCpu;
+        counters.transferredBytes += sent;
+        return sent;
+    }
+}
@@ -0,0 +1,147 @@
+package org.openjdk.jmh.custom;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * FilterDataInDifferentWayBenchmark 的五个取模条件在 int[] 上的各种写法，数据规模从 10^5 到 10^8。
+ * <p>
+ * 10^5 与 FilterDataInDifferentWayBenchmark 的数据相同，可以直接和其中装箱 List 的结果对比；
+ * 10^8 时输入和输出两个 int[] 共 800M，所以堆设为 2G。
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-Xms2G", "-Xmx2G"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class FilterLargeDataBenchmark {
+
+    /**
+     * 元素个数为 size + 1（0..size）
+     */
+    @Param({"100000", "10000000", "100000000"})
+    private int size;
+
+    private int[] primitiveValues;
+    private int[] output;
+    private IntFilterPipeline pipeline;
+    private FusedIntPredicate fusedPredicate;
+    private int[][] columns;
+    private ColumnarFilter columnarFilter;
+    private FastDivisibility[] fastDivisibilities;
+
+    public static void main(String[] args) throws RunnerException {
+
+        Options opt = new OptionsBuilder()
+                .include(FilterLargeDataBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup
+    public void setUp() {
+        primitiveValues = IntStream.rangeClosed(0, size).toArray();
+        output = new int[primitiveValues.length];
+        pipeline = IntFilterPipeline.of(
+                value -> value % 17 != 0,
+                value -> value % 16 != 0,
+                value -> value % 15 != 0,
+                value -> value % 14 != 0,
+                value -> value % 13 != 0);
+        fusedPredicate = FusedIntPredicate.builder()
+                .notDivisibleBy(17)
+                .notDivisibleBy(16)
+                .notDivisibleBy(15)
+                .notDivisibleBy(14)
+                .notDivisibleBy(13)
+                .build();
+
+        columns = new int[][]{primitiveValues};
+        columnarFilter = new ColumnarFilter(Arrays.asList(
+                ColumnPredicate.notDivisibleBy(0, 17),
+                ColumnPredicate.notDivisibleBy(0, 16),
+                ColumnPredicate.notDivisibleBy(0, 15),
+                ColumnPredicate.notDivisibleBy(0, 14),
+                ColumnPredicate.notDivisibleBy(0, 13)));
+
+        fastDivisibilities = new FastDivisibility[]{
+                new FastDivisibility(17),
+                new FastDivisibility(16),
+                new FastDivisibility(15),
+                new FastDivisibility(14),
+                new FastDivisibility(13)
+        };
+    }
+
+    /**
+     * 与 FilterDataInDifferentWayBenchmark.forLoop 相同的条件，直接写在 int[] 上
+     */
+    @Benchmark
+    public int forLoop() {
+        int[] output = this.output;
+        int count = 0;
+
+        for (int value : primitiveValues) {
+            if (value % 17 != 0
+                    && value % 16 != 0
+                    && value % 15 != 0
+                    && value % 14 != 0
+                    && value % 13 != 0) {
+                output[count++] = value;
+            }
+        }
+
+        return count;
+    }
+
+    @Benchmark
+    public int intFilterPipeline() {
+        return pipeline.filter(primitiveValues, output);
+    }
+
+    @Benchmark
+    public int fusedPredicate() {
+        return fusedPredicate.filter(primitiveValues, output);
+    }
+
+    @Benchmark
+    public int columnarFilter() {
+        return columnarFilter.filter(columns, primitiveValues.length, 0, output);
+    }
+
+    /**
+     * 这里的除数是常量，JIT 本身已经会把 % 换成乘法，这个变体主要用来确认 FastDivisibility 没有额外开销
+     */
+    @Benchmark
+    public int forLoopFastDivisibility() {
+        FastDivisibility d17 = fastDivisibilities[0];
+        FastDivisibility d16 = fastDivisibilities[1];
+        FastDivisibility d15 = fastDivisibilities[2];
+        FastDivisibility d14 = fastDivisibilities[3];
+        FastDivisibility d13 = fastDivisibilities[4];
+        int[] output = this.output;
+        int count = 0;
+
+        for (int value : primitiveValues) {
+            if (!d17.isDivisible(value)
+                    && !d16.isDivisible(value)
+                    && !d15.isDivisible(value)
+                    && !d14.isDivisible(value)
+                    && !d13.isDivisible(value)) {
+                output[count++] = value;
+            }
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,46 @@
+package org.openjdk.jmh.custom;
+
+import java.util.function.IntPredicate;
+
+/**
+ * 在任意集合前面加一层布隆过滤器：过滤器判定不存在时直接返回，不再访问后端集合。
+ * <p>
+ * 后端集合以 {@link IntPredicate} 的形式传入，例如 {@code hashSet::contains}、{@code intOpenHashSet::contains}。
+ * 集合构建完成后就不应再修改，否则需要同步调用 {@link #add(int)}。
+ */
+public class FilteredSet {
+
+    private final BlockedBloomFilter filter;
+    private final IntPredicate backing;
+
+    public FilteredSet(BlockedBloomFilter filter, IntPredicate backing) {
+        this.filter = filter;
+        this.backing = backing;
+    }
+
+    /**
+     * 用 keys 填充一个新的过滤器，并放在 backing 前面
+     */
+    public static FilteredSet of(int[] keys, double falsePositiveRate, IntPredicate backing) {
+        BlockedBloomFilter filter = new BlockedBloomFilter(Math.max(1, keys.length), falsePositiveRate);
+        for (int key : keys) {
+            filter.add(key);
+        }
+        return new FilteredSet(filter, backing);
+    }
+
+    /**
+     * 后端集合新增元素后需要同步登记到过滤器
+     */
+    public void add(int key) {
+        filter.add(key);
+    }
+
+    public boolean contains(int key) {
+        return filter.mightContain(key) && backing.test(key);
+    }
+
+    public BlockedBloomFilter filter() {
+        return filter;
+    }
+}
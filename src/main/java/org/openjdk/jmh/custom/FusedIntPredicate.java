@@ -0,0 +1,290 @@
+package org.openjdk.jmh.custom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * 把运行时拼出来的一串取模 / 区间 / 相等谓词"编译"成一个融合后的谓词。
+ * <p>
+ * 逐个调用 IntPredicate 时，同一个调用点会看到很多不同的 lambda，JIT 无法内联，每个值要付出多次虚调用。
+ * 这里谓词以数据（而不是代码）的形式描述，编译时做三件事：
+ * <ul>
+ * <li>所有 inRange / equalTo 求交集，合并成一个 [min, max] 区间检查</li>
+ * <li>所有 notEqualTo / notInRange 合并成一张排好序的排除区间表</li>
+ * <li>所有取模谓词：如果模数的最小公倍数不超过 {@link #MAX_RESIDUE_TABLE_BITS}，预先算出每个余数是否满足全部条件，
+ * 查询时只需一次取模加一次查位图；否则退化为在 int[] 上循环判断，仍然没有虚调用</li>
+ * </ul>
+ * 取模谓词按 {@link Math#floorMod(int, int)} 的语义判断，对 "能否整除" 来说与 {@code %} 完全一致。
+ */
+public final class FusedIntPredicate implements IntPredicate {
+
+    /**
+     * 余数位图最多 2^22 位（512KB）
+     */
+    static final int MAX_RESIDUE_TABLE_BITS = 1 << 22;
+
+    private final int min;
+    private final int max;
+
+    /**
+     * 排除区间，闭区间，按起点升序且互不重叠
+     */
+    private final int[] excludedFrom;
+    private final int[] excludedTo;
+
+    /**
+     * 模数的最小公倍数足够小时使用：residueTable 的第 r 位表示余数 r 是否满足所有取模条件
+     */
+    private final int period;
+    private final long[] residueTable;
+
+    /**
+     * 无法建表时的退化形式：floorMod(value, moduli[i]) == remainders[i] 必须等于 expectEqual[i]
+     */
+    private final int[] moduli;
+    private final int[] remainders;
+    private final boolean[] expectEqual;
+
+    /**
+     * 区间交集为空，或者取模条件互相矛盾
+     */
+    private final boolean alwaysFalse;
+
+    private FusedIntPredicate(Builder builder) {
+        long min = Integer.MIN_VALUE;
+        long max = Integer.MAX_VALUE;
+        for (int[] range : builder.ranges) {
+            min = Math.max(min, range[0]);
+            max = Math.min(max, range[1]);
+        }
+        this.min = (int) min;
+        this.max = (int) max;
+
+        int[][] excluded = mergeRanges(builder.excludedRanges);
+        this.excludedFrom = new int[excluded.length];
+        this.excludedTo = new int[excluded.length];
+        for (int i = 0; i < excluded.length; i++) {
+            excludedFrom[i] = excluded[i][0];
+            excludedTo[i] = excluded[i][1];
+        }
+
+        int n = builder.moduloTerms.size();
+        this.moduli = new int[n];
+        this.remainders = new int[n];
+        this.expectEqual = new boolean[n];
+        long lcm = 1;
+        for (int i = 0; i < n; i++) {
+            ModuloTerm term = builder.moduloTerms.get(i);
+            moduli[i] = term.modulus;
+            remainders[i] = term.remainder;
+            expectEqual[i] = term.expectEqual;
+            if (lcm <= MAX_RESIDUE_TABLE_BITS) {
+                lcm = lcm / gcd(lcm, term.modulus) * term.modulus;
+            }
+        }
+
+        if (n > 0 && lcm <= MAX_RESIDUE_TABLE_BITS) {
+            this.period = (int) lcm;
+            this.residueTable = new long[(period + 63) >>> 6];
+            boolean any = false;
+            for (int r = 0; r < period; r++) {
+                if (matchesModuloTerms(r)) {
+                    residueTable[r >>> 6] |= 1L << r;
+                    any = true;
+                }
+            }
+            this.alwaysFalse = min > max || !any;
+        } else {
+            this.period = 0;
+            this.residueTable = null;
+            this.alwaysFalse = min > max;
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public boolean test(int value) {
+        if (value < min || value > max || alwaysFalse) {
+            return false;
+        }
+
+        int[] excludedFrom = this.excludedFrom;
+        for (int i = 0; i < excludedFrom.length && excludedFrom[i] <= value; i++) {
+            if (value <= excludedTo[i]) {
+                return false;
+            }
+        }
+
+        if (residueTable != null) {
+            int r = Math.floorMod(value, period);
+            return (residueTable[r >>> 6] & (1L << r)) != 0;
+        }
+        return matchesModuloTerms(value);
+    }
+
+    /**
+     * 过滤 source，满足条件的值写入 output，返回写入个数；output 长度至少为 source.length
+     */
+    public int filter(int[] source, int[] output) {
+        int count = 0;
+        for (int value : source) {
+            if (test(value)) {
+                output[count++] = value;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 是否使用了余数位图
+     */
+    public boolean usesResidueTable() {
+        return residueTable != null;
+    }
+
+    private boolean matchesModuloTerms(int value) {
+        int[] moduli = this.moduli;
+        for (int i = 0; i < moduli.length; i++) {
+            if ((Math.floorMod(value, moduli[i]) == remainders[i]) != expectEqual[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    private static int[][] mergeRanges(List<int[]> ranges) {
+        if (ranges.isEmpty()) {
+            return new int[0][];
+        }
+        int[][] sorted = ranges.toArray(new int[0][]);
+        Arrays.sort(sorted, (a, b) -> Integer.compare(a[0], b[0]));
+        List<int[]> merged = new ArrayList<>();
+        int[] current = sorted[0].clone();
+        for (int i = 1; i < sorted.length; i++) {
+            int[] next = sorted[i];
+            if ((long) next[0] <= (long) current[1] + 1) {
+                current[1] = Math.max(current[1], next[1]);
+            } else {
+                merged.add(current);
+                current = next.clone();
+            }
+        }
+        merged.add(current);
+        return merged.toArray(new int[0][]);
+    }
+
+    private static final class ModuloTerm {
+
+        final int modulus;
+        final int remainder;
+        final boolean expectEqual;
+
+        ModuloTerm(int modulus, int remainder, boolean expectEqual) {
+            this.modulus = modulus;
+            this.remainder = remainder;
+            this.expectEqual = expectEqual;
+        }
+    }
+
+    /**
+     * 按任意顺序添加谓词，所有谓词之间是"且"的关系
+     */
+    public static final class Builder {
+
+        private final List<int[]> ranges = new ArrayList<>();
+        private final List<int[]> excludedRanges = new ArrayList<>();
+        private final List<ModuloTerm> moduloTerms = new ArrayList<>();
+        private final List<IntPredicate> stages = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * floorMod(value, modulus) == remainder
+         */
+        public Builder modEquals(int modulus, int remainder) {
+            int r = Math.floorMod(remainder, checkModulus(modulus));
+            moduloTerms.add(new ModuloTerm(modulus, r, true));
+            stages.add(value -> Math.floorMod(value, modulus) == r);
+            return this;
+        }
+
+        /**
+         * floorMod(value, modulus) != remainder
+         */
+        public Builder modNotEquals(int modulus, int remainder) {
+            int r = Math.floorMod(remainder, checkModulus(modulus));
+            moduloTerms.add(new ModuloTerm(modulus, r, false));
+            stages.add(value -> Math.floorMod(value, modulus) != r);
+            return this;
+        }
+
+        public Builder divisibleBy(int divisor) {
+            return modEquals(divisor, 0);
+        }
+
+        public Builder notDivisibleBy(int divisor) {
+            return modNotEquals(divisor, 0);
+        }
+
+        /**
+         * from &lt;= value &lt;= to
+         */
+        public Builder inRange(int from, int to) {
+            ranges.add(new int[]{from, to});
+            stages.add(value -> value >= from && value <= to);
+            return this;
+        }
+
+        /**
+         * value &lt; from 或 value &gt; to
+         */
+        public Builder notInRange(int from, int to) {
+            if (from <= to) {
+                excludedRanges.add(new int[]{from, to});
+            }
+            stages.add(value -> value < from || value > to);
+            return this;
+        }
+
+        public Builder equalTo(int constant) {
+            return inRange(constant, constant);
+        }
+
+        public Builder notEqualTo(int constant) {
+            return notInRange(constant, constant);
+        }
+
+        /**
+         * 未经融合的等价谓词，按添加顺序排列，用于对比
+         */
+        public List<IntPredicate> stages() {
+            return new ArrayList<>(stages);
+        }
+
+        public FusedIntPredicate build() {
+            return new FusedIntPredicate(this);
+        }
+
+        private static int checkModulus(int modulus) {
+            if (modulus <= 0) {
+                throw new IllegalArgumentException("modulus must be positive: " + modulus);
+            }
+            return modulus;
+        }
+    }
+}
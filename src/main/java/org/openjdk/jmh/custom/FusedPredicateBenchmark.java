@@ -0,0 +1,110 @@
+package org.openjdk.jmh.custom;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * 运行时动态拼出 1、5、20、50 个谓词，对比逐个调用 lambda 与融合之后的 FusedIntPredicate。
+ * <p>
+ * 前 5 个谓词与 FilterDataInDifferentWayBenchmark 相同（value % 17..13 != 0），
+ * 之后的谓词从取模、区间、相等三类中随机选取，随机种子固定。
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-Xms1G", "-Xmx1G"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class FusedPredicateBenchmark {
+
+    @Param({"1", "5", "20", "50"})
+    private int predicates;
+
+    @Param({"1000000"})
+    private int size;
+
+    private int[] values;
+    private int[] output;
+
+    private IntPredicate lambdaChain;
+    private IntFilterPipeline pipeline;
+    private FusedIntPredicate fused;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(FusedPredicateBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup
+    public void setUp() {
+        values = IntStream.rangeClosed(0, size).toArray();
+        output = new int[values.length];
+
+        FusedIntPredicate.Builder builder = randomChain(predicates, 42L);
+        List<IntPredicate> stages = builder.stages();
+
+        lambdaChain = stages.stream().reduce(IntPredicate::and).orElse(value -> true);
+        pipeline = new IntFilterPipeline(stages);
+        fused = builder.build();
+    }
+
+    static FusedIntPredicate.Builder randomChain(int predicates, long seed) {
+        FusedIntPredicate.Builder builder = FusedIntPredicate.builder();
+        Random random = new Random(seed);
+        for (int i = 0; i < predicates; i++) {
+            if (i < 5) {
+                builder.notDivisibleBy(17 - i);
+                continue;
+            }
+            int kind = random.nextInt(10);
+            if (kind < 6) {
+                builder.notDivisibleBy(20 + random.nextInt(180));
+            } else if (kind < 8) {
+                int from = random.nextInt(Integer.MAX_VALUE);
+                builder.notInRange(from, from + random.nextInt(1000));
+            } else if (kind < 9) {
+                builder.notEqualTo(random.nextInt(Integer.MAX_VALUE));
+            } else {
+                builder.inRange(-random.nextInt(1000), Integer.MAX_VALUE - random.nextInt(1000));
+            }
+        }
+        return builder;
+    }
+
+    @Benchmark
+    public int lambdaChain() {
+        IntPredicate predicate = lambdaChain;
+        int[] output = this.output;
+        int count = 0;
+        for (int value : values) {
+            if (predicate.test(value)) {
+                output[count++] = value;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int intFilterPipeline() {
+        return pipeline.filter(values, output);
+    }
+
+    @Benchmark
+    public int fusedPredicate() {
+        return fused.filter(values, output);
+    }
+
+}
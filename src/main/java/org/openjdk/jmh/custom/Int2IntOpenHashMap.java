@@ -0,0 +1,218 @@
+package org.openjdk.jmh.custom;
+
+import java.util.Arrays;
+
+/**
+ * 基于开放寻址（线性探测）的 int -&gt; int 映射，get/put 全程不装箱。
+ * <p>
+ * key 和 value 交错存放在同一个 int[] 里（下标 2i 为 key，2i + 1 为 value），一次探测命中时 value 通常与 key 在同一条缓存行。
+ * key 为 0 的槽位表示空，key 0 本身单独记录。get 找不到时返回构造时指定的 missingValue。
+ */
+public class Int2IntOpenHashMap {
+
+    private static final int MAX_CAPACITY = 1 << 29;
+
+    private final float loadFactor;
+    private final int missingValue;
+
+    private int[] entries;
+    private int mask;
+    private int resizeThreshold;
+    private int size;
+
+    private boolean containsZeroKey;
+    private int zeroKeyValue;
+
+    public Int2IntOpenHashMap(int missingValue) {
+        this(8, IntOpenHashSet.DEFAULT_LOAD_FACTOR, missingValue);
+    }
+
+    public Int2IntOpenHashMap(int expectedSize, int missingValue) {
+        this(expectedSize, IntOpenHashSet.DEFAULT_LOAD_FACTOR, missingValue);
+    }
+
+    public Int2IntOpenHashMap(int expectedSize, float loadFactor, int missingValue) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must be non-negative: " + expectedSize);
+        }
+        if (!(loadFactor > 0f && loadFactor < 1f)) {
+            throw new IllegalArgumentException("loadFactor must be in (0, 1): " + loadFactor);
+        }
+        this.loadFactor = loadFactor;
+        this.missingValue = missingValue;
+        int capacity = IntOpenHashSet.tableSizeFor(expectedSize, loadFactor);
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalStateException("expectedSize is too large: " + expectedSize);
+        }
+        allocate(capacity);
+    }
+
+    public int missingValue() {
+        return missingValue;
+    }
+
+    public int get(int key) {
+        if (key == 0) {
+            return containsZeroKey ? zeroKeyValue : missingValue;
+        }
+
+        int[] entries = this.entries;
+        int index = IntOpenHashSet.mix(key) & mask;
+        int existing;
+        while ((existing = entries[index << 1]) != 0) {
+            if (existing == key) {
+                return entries[(index << 1) + 1];
+            }
+            index = (index + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    public boolean containsKey(int key) {
+        if (key == 0) {
+            return containsZeroKey;
+        }
+
+        int[] entries = this.entries;
+        int index = IntOpenHashSet.mix(key) & mask;
+        int existing;
+        while ((existing = entries[index << 1]) != 0) {
+            if (existing == key) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * 返回旧值，不存在时返回 missingValue
+     */
+    public int put(int key, int value) {
+        if (key == 0) {
+            int old = containsZeroKey ? zeroKeyValue : missingValue;
+            if (!containsZeroKey) {
+                containsZeroKey = true;
+                size++;
+            }
+            zeroKeyValue = value;
+            return old;
+        }
+
+        int[] entries = this.entries;
+        int index = IntOpenHashSet.mix(key) & mask;
+        int existing;
+        while ((existing = entries[index << 1]) != 0) {
+            if (existing == key) {
+                int old = entries[(index << 1) + 1];
+                entries[(index << 1) + 1] = value;
+                return old;
+            }
+            index = (index + 1) & mask;
+        }
+
+        entries[index << 1] = key;
+        entries[(index << 1) + 1] = value;
+        if (++size > resizeThreshold) {
+            rehash((mask + 1) << 1);
+        }
+        return missingValue;
+    }
+
+    /**
+     * 返回被删除的值，不存在时返回 missingValue
+     */
+    public int remove(int key) {
+        if (key == 0) {
+            if (!containsZeroKey) {
+                return missingValue;
+            }
+            containsZeroKey = false;
+            size--;
+            return zeroKeyValue;
+        }
+
+        int[] entries = this.entries;
+        int index = IntOpenHashSet.mix(key) & mask;
+        int existing;
+        while ((existing = entries[index << 1]) != 0) {
+            if (existing == key) {
+                int old = entries[(index << 1) + 1];
+                entries[index << 1] = 0;
+                size--;
+                compactChain(index);
+                return old;
+            }
+            index = (index + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(entries, 0);
+            containsZeroKey = false;
+            size = 0;
+        }
+    }
+
+    /**
+     * 删除后把同一条探测链上的后继元素前移，避免使用墓碑
+     */
+    private void compactChain(int deleteIndex) {
+        int[] entries = this.entries;
+        int index = deleteIndex;
+        while (true) {
+            index = (index + 1) & mask;
+            int key = entries[index << 1];
+            if (key == 0) {
+                return;
+            }
+            int home = IntOpenHashSet.mix(key) & mask;
+            if (((index - home) & mask) >= ((index - deleteIndex) & mask)) {
+                entries[deleteIndex << 1] = key;
+                entries[(deleteIndex << 1) + 1] = entries[(index << 1) + 1];
+                entries[index << 1] = 0;
+                deleteIndex = index;
+            }
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        if (newCapacity > MAX_CAPACITY) {
+            throw new IllegalStateException("max capacity reached at size=" + size);
+        }
+        int[] oldEntries = entries;
+        allocate(newCapacity);
+        int[] entries = this.entries;
+        for (int i = 0; i < oldEntries.length; i += 2) {
+            int key = oldEntries[i];
+            if (key != 0) {
+                int index = IntOpenHashSet.mix(key) & mask;
+                while (entries[index << 1] != 0) {
+                    index = (index + 1) & mask;
+                }
+                entries[index << 1] = key;
+                entries[(index << 1) + 1] = oldEntries[i + 1];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        entries = new int[capacity << 1];
+        mask = capacity - 1;
+        resizeThreshold = Math.min(capacity - 1, (int) (capacity * loadFactor));
+    }
+}
@@ -0,0 +1,90 @@
+package org.openjdk.jmh.custom;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.util.function.IntSupplier;
+
+/**
+ * 按块拉取 int 的数据源，供 {@link StreamingIntFilter} 使用。
+ */
+public interface IntChunkSource {
+
+    /**
+     * 读取最多 buffer.length 个 int 到 buffer 开头，返回实际读到的个数；没有更多数据时返回 -1
+     */
+    int read(int[] buffer) throws IOException;
+
+    /**
+     * 从 supplier 中取 count 个值；count 为 Long.MAX_VALUE 时可以视为无界
+     */
+    static IntChunkSource fromSupplier(IntSupplier supplier, long count) {
+        return new IntChunkSource() {
+
+            private long remaining = count;
+
+            @Override
+            public int read(int[] buffer) {
+                if (remaining <= 0) {
+                    return -1;
+                }
+                int n = (int) Math.min(buffer.length, remaining);
+                for (int i = 0; i < n; i++) {
+                    buffer[i] = supplier.getAsInt();
+                }
+                remaining -= n;
+                return n;
+            }
+        };
+    }
+
+    /**
+     * 从 channel 中读取按大端序排列的 int，内部只持有一块 chunkBytes 大小的 direct buffer；
+     * 末尾不足 4 个字节的部分会被忽略
+     */
+    static IntChunkSource fromChannel(ReadableByteChannel channel, int chunkBytes) {
+        if (chunkBytes < Integer.BYTES) {
+            throw new IllegalArgumentException("chunkBytes must be at least 4: " + chunkBytes);
+        }
+        return fromChannel(channel, ByteBuffer.allocateDirect(chunkBytes - chunkBytes % Integer.BYTES));
+    }
+
+    /**
+     * 同 {@link #fromChannel(ReadableByteChannel, int)}，但使用调用方提供的缓冲区，便于反复读取时复用；
+     * bytes 会先被 clear，读取期间不能再被其他地方使用
+     */
+    static IntChunkSource fromChannel(ReadableByteChannel channel, ByteBuffer bytes) {
+        if (bytes.capacity() < Integer.BYTES) {
+            throw new IllegalArgumentException("buffer must hold at least 4 bytes: " + bytes.capacity());
+        }
+        bytes.clear();
+        bytes.order(ByteOrder.BIG_ENDIAN);
+        return new IntChunkSource() {
+
+            private boolean eof;
+
+            @Override
+            public int read(int[] buffer) throws IOException {
+                while (!eof && bytes.position() < Integer.BYTES) {
+                    eof = channel.read(bytes) < 0;
+                }
+                while (!eof && bytes.hasRemaining() && channel.read(bytes) > 0) {
+                    // 尽量把 buffer 填满，减少调用次数
+                }
+                if (bytes.position() < Integer.BYTES) {
+                    return -1;
+                }
+
+                bytes.flip();
+                int n = Math.min(buffer.length, bytes.remaining() / Integer.BYTES);
+                for (int i = 0; i < n; i++) {
+                    buffer[i] = bytes.getInt();
+                }
+                // 剩下的字节（包括不完整的 int）移到开头，下次接着读
+                bytes.compact();
+                return n;
+            }
+        };
+    }
+}
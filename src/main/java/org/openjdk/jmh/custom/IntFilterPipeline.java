@@ -0,0 +1,85 @@
+package org.openjdk.jmh.custom;
+
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * 针对 int[] 的过滤管道：依次用每个 stage 判断，全部通过的值写入调用方提供的输出数组。
+ * <p>
+ * 管道本身不可变、线程安全；每次调用只读 source、只写 output，不分配任何对象，
+ * output 可以在多次调用之间复用。
+ */
+public final class IntFilterPipeline {
+
+    private final IntPredicate[] stages;
+
+    public IntFilterPipeline(List<IntPredicate> stages) {
+        this(stages.toArray(new IntPredicate[0]));
+    }
+
+    private IntFilterPipeline(IntPredicate[] stages) {
+        for (IntPredicate stage : stages) {
+            if (stage == null) {
+                throw new IllegalArgumentException("stage must not be null");
+            }
+        }
+        this.stages = stages;
+    }
+
+    public static IntFilterPipeline of(IntPredicate... stages) {
+        return new IntFilterPipeline(stages.clone());
+    }
+
+    public int stageCount() {
+        return stages.length;
+    }
+
+    /**
+     * 过滤整个 source，返回写入 output 的元素个数
+     */
+    public int filter(int[] source, int[] output) {
+        return filter(source, 0, source.length, output, 0);
+    }
+
+    /**
+     * 过滤 source[from, to)，从 output[outputOffset] 开始写入，返回写入的元素个数
+     */
+    public int filter(int[] source, int from, int to, int[] output, int outputOffset) {
+        if (from < 0 || to > source.length || from > to) {
+            throw new IndexOutOfBoundsException("from=" + from + ", to=" + to + ", length=" + source.length);
+        }
+        if (outputOffset < 0 || output.length - outputOffset < to - from) {
+            throw new IndexOutOfBoundsException("output too small: need " + (to - from)
+                    + " slots from offset " + outputOffset + ", length=" + output.length);
+        }
+
+        IntPredicate[] stages = this.stages;
+        if (stages.length == 0) {
+            System.arraycopy(source, from, output, outputOffset, to - from);
+            return to - from;
+        }
+
+        // 第一个 stage 从 source 读、写入 output，之后的 stage 在 output 上原地压缩，
+        // 每一轮循环里只有一个谓词，分支预测和 JIT 的类型 profile 都比逐个元素轮询所有 stage 更友好
+        IntPredicate first = stages[0];
+        int count = outputOffset;
+        for (int i = from; i < to; i++) {
+            int value = source[i];
+            if (first.test(value)) {
+                output[count++] = value;
+            }
+        }
+        for (int s = 1; s < stages.length; s++) {
+            IntPredicate stage = stages[s];
+            int end = count;
+            count = outputOffset;
+            for (int i = outputOffset; i < end; i++) {
+                int value = output[i];
+                if (stage.test(value)) {
+                    output[count++] = value;
+                }
+            }
+        }
+        return count - outputOffset;
+    }
+}
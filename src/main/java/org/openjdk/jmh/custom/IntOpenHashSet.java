@@ -0,0 +1,228 @@
+package org.openjdk.jmh.custom;
+
+import java.util.Arrays;
+
+/**
+ * 基于开放寻址（线性探测）的 int 集合，add/contains 全程不装箱。
+ * <p>
+ * 表长始终为 2 的幂，0 作为空槽标记，集合中的 0 单独用 containsZero 记录。
+ */
+public class IntOpenHashSet {
+
+    public static final float DEFAULT_LOAD_FACTOR = 0.5f;
+
+    private static final int MIN_CAPACITY = 8;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private final float loadFactor;
+
+    private int[] keys;
+    private int mask;
+    private int resizeThreshold;
+    private int size;
+    private boolean containsZero;
+
+    public IntOpenHashSet() {
+        this(MIN_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    public IntOpenHashSet(int expectedSize) {
+        this(expectedSize, DEFAULT_LOAD_FACTOR);
+    }
+
+    public IntOpenHashSet(int expectedSize, float loadFactor) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must be non-negative: " + expectedSize);
+        }
+        if (!(loadFactor > 0f && loadFactor < 1f)) {
+            throw new IllegalArgumentException("loadFactor must be in (0, 1): " + loadFactor);
+        }
+        this.loadFactor = loadFactor;
+        allocate(tableSizeFor(expectedSize, loadFactor));
+    }
+
+    /**
+     * 与 HashMap 类似的扰动，保证低位能充分参与下标计算
+     */
+    static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    static int tableSizeFor(int expectedSize, float loadFactor) {
+        long required = (long) Math.ceil(expectedSize / (double) loadFactor) + 1;
+        if (required > MAX_CAPACITY) {
+            throw new IllegalStateException("expectedSize is too large: " + expectedSize);
+        }
+        int capacity = Integer.highestOneBit((int) Math.max(MIN_CAPACITY, required) - 1) << 1;
+        return Math.max(MIN_CAPACITY, capacity);
+    }
+
+    public boolean add(int key) {
+        if (key == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+
+        int[] keys = this.keys;
+        int index = mix(key) & mask;
+        int existing;
+        while ((existing = keys[index]) != 0) {
+            if (existing == key) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+
+        keys[index] = key;
+        if (++size > resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+        return true;
+    }
+
+    public boolean contains(int key) {
+        if (key == 0) {
+            return containsZero;
+        }
+
+        int[] keys = this.keys;
+        int index = mix(key) & mask;
+        int existing;
+        while ((existing = keys[index]) != 0) {
+            if (existing == key) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    public boolean remove(int key) {
+        if (key == 0) {
+            if (!containsZero) {
+                return false;
+            }
+            containsZero = false;
+            size--;
+            return true;
+        }
+
+        int[] keys = this.keys;
+        int index = mix(key) & mask;
+        int existing;
+        while ((existing = keys[index]) != 0) {
+            if (existing == key) {
+                keys[index] = 0;
+                size--;
+                compactChain(index);
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    public float loadFactor() {
+        return loadFactor;
+    }
+
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, 0);
+            containsZero = false;
+            size = 0;
+        }
+    }
+
+    /**
+     * 复制一份独立的集合，表长和负载因子保持不变
+     */
+    public IntOpenHashSet copy() {
+        IntOpenHashSet copy = new IntOpenHashSet(0, loadFactor);
+        copy.keys = keys.clone();
+        copy.mask = mask;
+        copy.resizeThreshold = resizeThreshold;
+        copy.size = size;
+        copy.containsZero = containsZero;
+        return copy;
+    }
+
+    /**
+     * 按任意顺序导出所有元素
+     */
+    public int[] toArray() {
+        int[] result = new int[size];
+        int i = 0;
+        if (containsZero) {
+            result[i++] = 0;
+        }
+        for (int key : keys) {
+            if (key != 0) {
+                result[i++] = key;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 删除后把同一条探测链上的后继元素前移，避免使用墓碑
+     */
+    private void compactChain(int deleteIndex) {
+        int[] keys = this.keys;
+        int index = deleteIndex;
+        while (true) {
+            index = (index + 1) & mask;
+            int key = keys[index];
+            if (key == 0) {
+                return;
+            }
+            int home = mix(key) & mask;
+            if (((index - home) & mask) >= ((index - deleteIndex) & mask)) {
+                keys[deleteIndex] = key;
+                keys[index] = 0;
+                deleteIndex = index;
+            }
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        if (newCapacity > MAX_CAPACITY || newCapacity <= 0) {
+            throw new IllegalStateException("max capacity reached at size=" + size);
+        }
+        int[] oldKeys = keys;
+        allocate(newCapacity);
+        int[] keys = this.keys;
+        for (int key : oldKeys) {
+            if (key != 0) {
+                int index = mix(key) & mask;
+                while (keys[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        mask = capacity - 1;
+        resizeThreshold = Math.min(capacity - 1, (int) (capacity * loadFactor));
+    }
+}
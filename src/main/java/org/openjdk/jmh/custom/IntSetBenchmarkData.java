@@ -0,0 +1,168 @@
+package org.openjdk.jmh.custom;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * 集合类基准测试共用的数据生成工具
+ */
+final class IntSetBenchmarkData {
+
+    /**
+     * 探测序列长度，必须是 2 的幂
+     */
+    static final int PROBE_COUNT = 4096;
+
+    private IntSetBenchmarkData() {
+    }
+
+    /**
+     * 查询类基准共用的数据：一组 key 和 PROBE_COUNT 个探测值，由子类的 {@link #generate()} 生成
+     */
+    @State(Scope.Benchmark)
+    abstract static class ProbeData {
+
+        int[] keys;
+        int[] probes;
+
+        @Setup
+        public void setUpKeysAndProbes() {
+            generate();
+        }
+
+        /**
+         * 填充 keys 和 probes，probes 的长度必须是 PROBE_COUNT
+         */
+        abstract void generate();
+
+        /**
+         * 第 i 个探测值，i 超过 PROBE_COUNT 时循环使用
+         */
+        int probe(int i) {
+            return probes[i & (PROBE_COUNT - 1)];
+        }
+    }
+
+    /**
+     * contains 类基准共用的数据：size 个互不相同的 key，以及按 hitRatio 混合命中 / 未命中的 PROBE_COUNT 个探测值。
+     * 子类用 @Param 声明 size 和 hitRatio 的取值
+     */
+    abstract static class ContainsData extends ProbeData {
+
+        /**
+         * spareCount() 个互不相同的额外值，与 keys 和未命中的探测值都不相交，供写线程等使用
+         */
+        int[] spares;
+
+        abstract int size();
+
+        abstract double hitRatio();
+
+        int spareCount() {
+            return 0;
+        }
+
+        @Override
+        void generate() {
+            int size = size();
+            int spareCount = spareCount();
+            int[] all = distinctRandomInts(size + PROBE_COUNT + spareCount, 42L);
+            keys = new int[size];
+            int[] misses = new int[PROBE_COUNT];
+            spares = new int[spareCount];
+            System.arraycopy(all, 0, keys, 0, size);
+            System.arraycopy(all, size, misses, 0, PROBE_COUNT);
+            System.arraycopy(all, size + PROBE_COUNT, spares, 0, spareCount);
+            probes = IntSetBenchmarkData.probes(keys, misses, PROBE_COUNT, hitRatio(), 7L);
+        }
+    }
+
+    /**
+     * 双射的整数打散函数：scramble(0..n-1) 互不相同，不需要额外内存就能生成超大规模的无重复 key
+     */
+    static int scramble(int i) {
+        int h = i * 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * 生成 size 个互不相同的非负随机整数
+     */
+    static int[] distinctRandomInts(int size, long seed) {
+        return distinctRandomInts(size, Integer.MAX_VALUE, seed);
+    }
+
+    /**
+     * 生成 size 个互不相同、取值在 [0, bound) 内的随机整数
+     */
+    static int[] distinctRandomInts(int size, int bound, long seed) {
+        if (size > bound) {
+            throw new IllegalArgumentException("cannot pick " + size + " distinct values below " + bound);
+        }
+        Random random = new Random(seed);
+        IntOpenHashSet seen = new IntOpenHashSet(size);
+        int[] result = new int[size];
+        int i = 0;
+        while (i < size) {
+            int candidate = random.nextInt(bound);
+            if (seen.add(candidate)) {
+                result[i++] = candidate;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 从 [0, bound) 中等概率地选出 size 个数，结果升序（Knuth 的 selection sampling）
+     */
+    static int[] sortedSample(int size, int bound, long seed) {
+        if (size > bound) {
+            throw new IllegalArgumentException("cannot pick " + size + " distinct values below " + bound);
+        }
+        Random random = new Random(seed);
+        int[] result = new int[size];
+        int remaining = size;
+        for (int x = 0; x < bound && remaining > 0; x++) {
+            if (random.nextInt(bound - x) < remaining) {
+                result[size - remaining] = x;
+                remaining--;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 生成探测序列：按 hitRatio 的比例从 keys 中取命中值，其余从 misses（与 keys 不相交）中取
+     */
+    static int[] probes(int[] keys, int[] misses, int count, double hitRatio, long seed) {
+        Random random = new Random(seed);
+        int[] probes = new int[count];
+        for (int i = 0; i < count; i++) {
+            if (random.nextDouble() < hitRatio) {
+                probes[i] = keys[random.nextInt(keys.length)];
+            } else {
+                probes[i] = misses[random.nextInt(misses.length)];
+            }
+        }
+        return probes;
+    }
+
+    /**
+     * 生成 key 为 scramble(0 .. size-1) 时的探测序列：按 hitRatio 的比例取命中值，其余取 scramble(size .. 2*size-1)，
+     * 超大规模时不需要把全部 key 保存在堆里
+     */
+    static int[] scrambledProbes(int size, int count, double hitRatio, long seed) {
+        Random random = new Random(seed);
+        int[] probes = new int[count];
+        for (int i = 0; i < count; i++) {
+            int index = random.nextInt(size);
+            probes[i] = scramble(random.nextDouble() < hitRatio ? index : size + index);
+        }
+        return probes;
+    }
+}
@@ -0,0 +1,10 @@
+package org.openjdk.jmh.custom;
+
+/**
+ * 接收过滤结果的下游；values 只在本次调用期间有效，之后会被复用
+ */
+@FunctionalInterface
+public interface IntSink {
+
+    void accept(int[] values, int count);
+}
@@ -0,0 +1,189 @@
+package org.openjdk.jmh.custom;
+
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.YieldingIdleStrategy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link IpcTransportBenchmark} 的另一端，运行在单独的 JVM 里。
+ * <p>
+ * 支持四种模式：
+ * <ul>
+ * <li>shm-produce &lt;file&gt; &lt;ringType&gt; &lt;messageBytes&gt;：不停地往 ring buffer 里写消息</li>
+ * <li>shm-echo &lt;pingFile&gt; &lt;pongFile&gt; &lt;ringType&gt;：从 ping 读到的消息原样写回 pong</li>
+ * <li>tcp-produce &lt;port&gt; &lt;messageBytes&gt;：连接本机端口，不停地写消息</li>
+ * <li>tcp-echo &lt;port&gt; &lt;messageBytes&gt;：连接本机端口，读到的消息原样写回</li>
+ * </ul>
+ * 标准输入被关闭（父进程结束或主动关闭）或者 TCP 连接被关闭时退出。
+ */
+public final class IpcPeer {
+
+    private static volatile boolean running = true;
+
+    private IpcPeer() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        watchStdin();
+        switch (args[0]) {
+            case "shm-produce":
+                shmProduce(new File(args[1]), SharedMemoryTransport.RingType.valueOf(args[2]), Integer.parseInt(args[3]));
+                break;
+            case "shm-echo":
+                shmEcho(new File(args[1]), new File(args[2]), SharedMemoryTransport.RingType.valueOf(args[3]));
+                break;
+            case "tcp-produce":
+                tcpProduce(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+                break;
+            case "tcp-echo":
+                tcpEcho(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+                break;
+            default:
+                throw new IllegalArgumentException("unknown mode: " + args[0]);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * 启动一个运行 IpcPeer 的子进程，沿用当前 JVM 的 classpath 以及 --add-exports / --add-opens 参数
+     */
+    static Process start(String... args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin" + File.separator + "java").getPath());
+        command.add("-Xms256m");
+        command.add("-Xmx256m");
+        for (String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (argument.startsWith("--add-exports") || argument.startsWith("--add-opens")) {
+                command.add(argument);
+            }
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(IpcPeer.class.getName());
+        for (String arg : args) {
+            command.add(arg);
+        }
+        return new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.INHERIT)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    /**
+     * 关闭子进程的标准输入让它自己退出，等不到就强制结束
+     */
+    static void stop(Process process) throws InterruptedException {
+        try {
+            process.getOutputStream().close();
+        } catch (IOException e) {
+            // 子进程已经退出
+        }
+        if (!process.waitFor(10, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+
+    private static void watchStdin() {
+        Thread watcher = new Thread(() -> {
+            InputStream in = System.in;
+            try {
+                while (in.read() >= 0) {
+                    // 只关心 EOF
+                }
+            } catch (IOException e) {
+                // 当作父进程已经退出
+            }
+            running = false;
+        }, "ipc-peer-stdin");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private static void shmProduce(File file, SharedMemoryTransport.RingType ringType, int messageBytes) {
+        SharedMemoryTransport transport = SharedMemoryTransport.open(file, ringType);
+        UnsafeBuffer message = new UnsafeBuffer(new byte[messageBytes]);
+        IdleStrategy idle = new YieldingIdleStrategy();
+        long sequence = 0;
+        while (running) {
+            message.putLong(0, sequence);
+            if (transport.offer(message, 0, messageBytes)) {
+                sequence++;
+                idle.reset();
+            } else {
+                idle.idle();
+            }
+        }
+    }
+
+    private static void shmEcho(File pingFile, File pongFile, SharedMemoryTransport.RingType ringType) {
+        SharedMemoryTransport ping = SharedMemoryTransport.open(pingFile, ringType);
+        SharedMemoryTransport pong = SharedMemoryTransport.open(pongFile, ringType);
+        IdleStrategy idle = new YieldingIdleStrategy();
+        MessageHandler echo = (msgTypeId, buffer, index, length) -> {
+            while (!pong.offer(buffer, index, length) && running) {
+                idle.idle();
+            }
+        };
+        while (running) {
+            idle.idle(ping.poll(echo, Integer.MAX_VALUE));
+        }
+    }
+
+    private static void tcpProduce(int port, int messageBytes) throws IOException {
+        try (SocketChannel channel = connect(port)) {
+            // 每次写一批消息，减少系统调用
+            ByteBuffer batch = ByteBuffer.allocateDirect(Math.max(1, 65536 / messageBytes) * messageBytes);
+            long sequence = 0;
+            while (running) {
+                batch.clear();
+                for (int position = 0; position < batch.capacity(); position += messageBytes) {
+                    batch.putLong(position, sequence++);
+                }
+                while (batch.hasRemaining() && running) {
+                    channel.write(batch);
+                }
+            }
+        } catch (IOException e) {
+            // benchmark 进程关闭连接是正常的结束方式
+        }
+    }
+
+    private static void tcpEcho(int port, int messageBytes) throws IOException {
+        try (SocketChannel channel = connect(port)) {
+            ByteBuffer message = ByteBuffer.allocateDirect(messageBytes);
+            while (running) {
+                message.clear();
+                while (message.hasRemaining()) {
+                    if (channel.read(message) < 0) {
+                        return;
+                    }
+                }
+                message.flip();
+                while (message.hasRemaining()) {
+                    channel.write(message);
+                }
+            }
+        } catch (IOException e) {
+            // benchmark 进程关闭连接是正常的结束方式
+        }
+    }
+
+    private static SocketChannel connect(int port) throws IOException {
+        SocketChannel channel = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        channel.socket().setTcpNoDelay(true);
+        return channel;
+    }
+}
@@ -0,0 +1,250 @@
+package org.openjdk.jmh.custom;
+
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.YieldingIdleStrategy;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 同一台机器上两个 JVM 之间传递消息：共享内存 ring buffer（{@link SharedMemoryTransport}）与本机 TCP 的对比。
+ * <p>
+ * 另一端是 benchmark 进程启动的 {@link IpcPeer} 子进程：
+ * <ul>
+ * <li>*Throughput：子进程不停地生产消息，这里每次操作消费一条，结果为每微秒的消息数</li>
+ * <li>*RoundTrip：这里发一条消息，子进程原样发回，每次操作是一次往返；SampleTime 模式会给出 p50 / p90 / p99 / p99.9 等分位数</li>
+ * </ul>
+ * 两端都用 YieldingIdleStrategy 等待，CPU 核数少时也能运行；核数充足时换成忙等可以得到更低的延迟。
+ * JDK 9 以上运行时需要通过 -jvmArgsAppend 传入 --add-exports java.base/sun.nio.ch=ALL-UNNAMED，子进程会沿用这个参数。
+ */
+
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-Xms1G", "-Xmx1G"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(value = 1)
+public class IpcTransportBenchmark {
+
+    private static final int RING_CAPACITY = 1 << 20;
+
+    private static final int TCP_RECEIVE_BUFFER = 1 << 16;
+
+    @Param({"32", "256"})
+    private int messageBytes;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(IpcTransportBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    /**
+     * 收到一条消息时记下它的前 8 个字节
+     */
+    static final class LastMessage implements MessageHandler {
+
+        long value;
+
+        @Override
+        public void onMessage(int msgTypeId, MutableDirectBuffer buffer, int index, int length) {
+            value = buffer.getLong(index);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ShmProducer {
+
+        @Param({"ONE_TO_ONE", "MANY_TO_ONE"})
+        SharedMemoryTransport.RingType ringType;
+
+        SharedMemoryTransport transport;
+        Process peer;
+
+        final LastMessage handler = new LastMessage();
+        final IdleStrategy idle = new YieldingIdleStrategy();
+
+        @Setup
+        public void setUp(IpcTransportBenchmark benchmark) throws IOException {
+            File file = File.createTempFile("ipc-throughput", ".ring", SharedMemoryTransport.defaultDirectory());
+            transport = SharedMemoryTransport.create(file, RING_CAPACITY, ringType);
+            peer = IpcPeer.start("shm-produce", file.getPath(), ringType.name(), String.valueOf(benchmark.messageBytes));
+        }
+
+        @TearDown
+        public void tearDown() throws InterruptedException {
+            IpcPeer.stop(peer);
+            transport.close();
+            transport.file().delete();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ShmEcho {
+
+        @Param({"ONE_TO_ONE", "MANY_TO_ONE"})
+        SharedMemoryTransport.RingType ringType;
+
+        SharedMemoryTransport ping;
+        SharedMemoryTransport pong;
+        Process peer;
+
+        UnsafeBuffer message;
+        long sequence;
+
+        final LastMessage handler = new LastMessage();
+        final IdleStrategy idle = new YieldingIdleStrategy();
+
+        @Setup
+        public void setUp(IpcTransportBenchmark benchmark) throws IOException {
+            File directory = SharedMemoryTransport.defaultDirectory();
+            ping = SharedMemoryTransport.create(File.createTempFile("ipc-ping", ".ring", directory), RING_CAPACITY, ringType);
+            pong = SharedMemoryTransport.create(File.createTempFile("ipc-pong", ".ring", directory), RING_CAPACITY, ringType);
+            peer = IpcPeer.start("shm-echo", ping.file().getPath(), pong.file().getPath(), ringType.name());
+            message = new UnsafeBuffer(new byte[benchmark.messageBytes]);
+        }
+
+        @TearDown
+        public void tearDown() throws InterruptedException {
+            IpcPeer.stop(peer);
+            ping.close();
+            pong.close();
+            ping.file().delete();
+            pong.file().delete();
+        }
+    }
+
+    /**
+     * 本机 TCP：子进程主动连接这里监听的端口
+     */
+    public abstract static class TcpPeer {
+
+        ServerSocketChannel server;
+        SocketChannel channel;
+        Process peer;
+
+        void connect(String mode, int messageBytes) throws IOException {
+            server = ServerSocketChannel.open();
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            int port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+            peer = IpcPeer.start(mode, String.valueOf(port), String.valueOf(messageBytes));
+            channel = server.accept();
+            channel.socket().setTcpNoDelay(true);
+        }
+
+        @TearDown
+        public void tearDown() throws IOException, InterruptedException {
+            channel.close();
+            server.close();
+            IpcPeer.stop(peer);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class TcpProducer extends TcpPeer {
+
+        ByteBuffer received;
+
+        @Setup
+        public void setUp(IpcTransportBenchmark benchmark) throws IOException {
+            connect("tcp-produce", benchmark.messageBytes);
+            received = ByteBuffer.allocateDirect(TCP_RECEIVE_BUFFER);
+            received.flip();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class TcpEcho extends TcpPeer {
+
+        ByteBuffer message;
+        long sequence;
+
+        @Setup
+        public void setUp(IpcTransportBenchmark benchmark) throws IOException {
+            connect("tcp-echo", benchmark.messageBytes);
+            message = ByteBuffer.allocateDirect(benchmark.messageBytes);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long shmThroughput(ShmProducer producer) {
+        while (producer.transport.poll(producer.handler, 1) == 0) {
+            producer.idle.idle();
+        }
+        producer.idle.reset();
+        return producer.handler.value;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long tcpThroughput(TcpProducer producer) throws IOException {
+        ByteBuffer received = producer.received;
+        if (received.remaining() < messageBytes) {
+            // 不完整的消息移到开头，再尽量多读一些
+            received.compact();
+            while (received.position() < messageBytes) {
+                if (producer.channel.read(received) < 0) {
+                    throw new IOException("peer closed the connection");
+                }
+            }
+            received.flip();
+        }
+        long value = received.getLong(received.position());
+        received.position(received.position() + messageBytes);
+        return value;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long shmRoundTrip(ShmEcho echo) {
+        long sequence = echo.sequence++;
+        echo.message.putLong(0, sequence);
+        while (!echo.ping.offer(echo.message, 0, messageBytes)) {
+            echo.idle.idle();
+        }
+        echo.idle.reset();
+        while (echo.pong.poll(echo.handler, 1) == 0) {
+            echo.idle.idle();
+        }
+        echo.idle.reset();
+        return echo.handler.value;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long tcpRoundTrip(TcpEcho echo) throws IOException {
+        ByteBuffer message = echo.message;
+        message.clear();
+        message.putLong(0, echo.sequence++);
+        while (message.hasRemaining()) {
+            echo.channel.write(message);
+        }
+        message.clear();
+        while (message.hasRemaining()) {
+            if (echo.channel.read(message) < 0) {
+                throw new IOException("peer closed the connection");
+            }
+        }
+        return message.getLong(0);
+    }
+}
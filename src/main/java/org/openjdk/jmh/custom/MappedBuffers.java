@@ -0,0 +1,53 @@
+package org.openjdk.jmh.custom;
+
+import org.agrona.IoUtil;
+import org.agrona.UnsafeAccess;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+/**
+ * 立即释放内存映射，不必等 GC 回收 MappedByteBuffer。
+ * <p>
+ * Java 8 上使用 Agrona 的 {@link IoUtil#unmap(MappedByteBuffer)}；当前版本的 IoUtil 在 Java 9 之后无法初始化，
+ * 这时改用 JDK 9 引入的 sun.misc.Unsafe#invokeCleaner。unmap 之后再访问这块内存会导致 JVM 崩溃。
+ */
+final class MappedBuffers {
+
+    /**
+     * Java 9+ 的 Unsafe.invokeCleaner(ByteBuffer)，Java 8 上为 null
+     */
+    private static final MethodHandle INVOKE_CLEANER = findInvokeCleaner();
+
+    private MappedBuffers() {
+    }
+
+    static void unmap(MappedByteBuffer buffer) {
+        if (buffer == null) {
+            return;
+        }
+        if (INVOKE_CLEANER == null) {
+            IoUtil.unmap(buffer);
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke((ByteBuffer) buffer);
+        } catch (Throwable e) {
+            throw new IllegalStateException("failed to unmap buffer", e);
+        }
+    }
+
+    private static MethodHandle findInvokeCleaner() {
+        try {
+            return MethodHandles.lookup()
+                    .findVirtual(UnsafeAccess.UNSAFE.getClass(), "invokeCleaner",
+                            MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(UnsafeAccess.UNSAFE);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+}
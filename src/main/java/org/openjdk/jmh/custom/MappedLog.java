@@ -0,0 +1,332 @@
+package org.openjdk.jmh.custom;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * 分段的内存映射追加日志：记录依次写入固定大小的段文件，段文件整体映射进内存，通过 UnsafeBuffer 读写。
+ * <p>
+ * 每条记录为 [int length][payload]，按 {@link #ALIGNMENT} 字节对齐；记录的位置（position）是它在整个日志中的逻辑偏移，
+ * 第 i 个段覆盖 [i * segmentBytes, (i + 1) * segmentBytes)，因此从 position 可以直接算出段号和段内偏移。
+ * 段尾放不下的记录写到下一个段，段尾剩余空间用长度为 {@link #PADDING} 的记录占位。
+ * <p>
+ * 写入时先写 payload，再用 putIntOrdered 写长度，最后用有序写发布 tail；读者先读 volatile 的 tail，
+ * 再读 tail 之前的记录，所以同一个进程里的其他线程可以边写边读。
+ * 只支持一个写线程：append / flush / close 只能由写线程调用，read 和 {@link Reader} 可以在任意线程调用。
+ * 新段只由写线程映射，映射好之后复制一份段数组再通过 volatile 字段发布，读者只会看到已经发布的段。
+ * 重新打开已有的目录时，会从最后一个段开始扫描，找到第一个长度为 0 的位置作为写入位置。
+ * <p>
+ * 何时把脏页刷到磁盘由 {@link FlushPolicy} 决定，也可以随时调用 {@link #flush()}。
+ * Java 8 的 MappedByteBuffer 只有整体 force()，没有按区间刷的接口，所以刷盘的范围总是整个段。
+ * 新建日志时在构造函数里预先映射第 0 个段，第一次 append 不会触发映射；close 会立即 unmap 所有段，之后不能再读写。
+ */
+public class MappedLog implements AutoCloseable {
+
+    public static final int HEADER_LENGTH = Integer.BYTES;
+    public static final int ALIGNMENT = 8;
+
+    /**
+     * 段尾占位记录的长度标记
+     */
+    static final int PADDING = -1;
+
+    public enum FlushPolicy {
+
+        /**
+         * 只在调用 flush() / close() 时刷盘，其余时间交给操作系统
+         */
+        MANUAL,
+
+        /**
+         * 每写满一个段，刷一次这个段
+         */
+        ON_ROLLOVER,
+
+        /**
+         * 每次 append 之后都刷当前段，最安全也最慢；force() 作用于整个段的映射，
+         * 内核需要遍历整段的页表查找脏页，段越大单次刷盘越慢
+         */
+        EVERY_APPEND
+    }
+
+    /**
+     * 读到一条记录时回调，buffer 中 [offset, offset + length) 为 payload，只在回调期间有效
+     */
+    @FunctionalInterface
+    public interface RecordHandler {
+
+        void onRecord(DirectBuffer buffer, int offset, int length, long position);
+    }
+
+    private final File directory;
+    private final int segmentBytes;
+    private final FlushPolicy flushPolicy;
+
+    private static final AtomicLongFieldUpdater<MappedLog> TAIL_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(MappedLog.class, "tail");
+
+    /**
+     * 只由写线程访问
+     */
+    private final List<MappedByteBuffer> mappings = new ArrayList<>();
+
+    /**
+     * 已经发布给读者的段，写线程每映射一个新段就替换成新的数组
+     */
+    private volatile UnsafeBuffer[] segments = new UnsafeBuffer[0];
+
+    private volatile long tail;
+
+    /**
+     * segmentBytes 必须是 ALIGNMENT 的倍数
+     */
+    public MappedLog(File directory, int segmentBytes, FlushPolicy flushPolicy) {
+        if (segmentBytes < 64 || segmentBytes % ALIGNMENT != 0) {
+            throw new IllegalArgumentException("segmentBytes must be a multiple of " + ALIGNMENT
+                    + " and at least 64: " + segmentBytes);
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalStateException("failed to create log directory: " + directory);
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.flushPolicy = flushPolicy;
+        recover();
+    }
+
+    /**
+     * 单条记录 payload 的最大长度
+     */
+    public int maxPayloadLength() {
+        return segmentBytes - HEADER_LENGTH;
+    }
+
+    public int segmentBytes() {
+        return segmentBytes;
+    }
+
+    public int segmentCount() {
+        return segments.length;
+    }
+
+    /**
+     * 下一条记录将要写入的位置，也就是日志的逻辑长度
+     */
+    public long tail() {
+        return tail;
+    }
+
+    /**
+     * 追加一条记录，返回它的位置；只能由写线程调用
+     */
+    public long append(DirectBuffer source, int offset, int length) {
+        if (length < 0 || length > maxPayloadLength()) {
+            throw new IllegalArgumentException("length must be in [0, " + maxPayloadLength() + "]: " + length);
+        }
+        int recordLength = align(HEADER_LENGTH + length);
+        int segmentOffset = (int) (tail % segmentBytes);
+        if (segmentOffset + recordLength > segmentBytes) {
+            rollover(segmentOffset);
+            segmentOffset = 0;
+        }
+
+        long position = tail;
+        UnsafeBuffer segment = writableSegment((int) (position / segmentBytes));
+        segment.putBytes(segmentOffset + HEADER_LENGTH, source, offset, length);
+        // 长度字段为 0 表示还没写入，空记录用 Integer.MIN_VALUE 表示
+        segment.putIntOrdered(segmentOffset, length == 0 ? Integer.MIN_VALUE : length);
+        TAIL_UPDATER.lazySet(this, position + recordLength);
+
+        if (flushPolicy == FlushPolicy.EVERY_APPEND) {
+            mappings.get((int) (position / segmentBytes)).force();
+        }
+        return position;
+    }
+
+    /**
+     * 读取 position 处的一条记录，position 必须是 append 返回过的值；记录不存在时返回 false
+     */
+    public boolean read(long position, RecordHandler handler) {
+        if (position < 0 || position >= tail) {
+            return false;
+        }
+        UnsafeBuffer segment = segments[(int) (position / segmentBytes)];
+        int segmentOffset = (int) (position % segmentBytes);
+        int length = segment.getIntVolatile(segmentOffset);
+        if (length == 0 || length == PADDING) {
+            return false;
+        }
+        handler.onRecord(segment, segmentOffset + HEADER_LENGTH, payloadLength(length), position);
+        return true;
+    }
+
+    /**
+     * 从 position 开始顺序读取的游标；position 为 0 表示从头开始
+     */
+    public Reader reader(long position) {
+        return new Reader(position);
+    }
+
+    /**
+     * 把所有段的脏页刷到磁盘；只能由写线程调用
+     */
+    public void flush() {
+        for (MappedByteBuffer mapping : mappings) {
+            mapping.force();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (flushPolicy != FlushPolicy.EVERY_APPEND) {
+            flush();
+        }
+        segments = new UnsafeBuffer[0];
+        for (MappedByteBuffer mapping : mappings) {
+            MappedBuffers.unmap(mapping);
+        }
+        mappings.clear();
+    }
+
+    /**
+     * 删除日志目录下的所有段文件，必须先 close
+     */
+    public void delete() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().endsWith(".log") && !file.delete()) {
+                    throw new IllegalStateException("failed to delete segment: " + file);
+                }
+            }
+        }
+        directory.delete();
+    }
+
+    public final class Reader {
+
+        private long position;
+
+        private Reader(long position) {
+            this.position = position;
+        }
+
+        public long position() {
+            return position;
+        }
+
+        /**
+         * 读取最多 limit 条已经写完的记录，返回实际读到的条数；读到写入位置时停止
+         */
+        public int poll(RecordHandler handler, int limit) {
+            int count = 0;
+            while (count < limit && position < tail) {
+                int index = (int) (position / segmentBytes);
+                int segmentOffset = (int) (position % segmentBytes);
+                UnsafeBuffer segment = segments[index];
+                int length = segment.getIntVolatile(segmentOffset);
+                if (length == 0) {
+                    break;
+                }
+                if (length == PADDING) {
+                    position = (long) (index + 1) * segmentBytes;
+                    continue;
+                }
+                int payloadLength = payloadLength(length);
+                handler.onRecord(segment, segmentOffset + HEADER_LENGTH, payloadLength, position);
+                position += align(HEADER_LENGTH + payloadLength);
+                count++;
+            }
+            return count;
+        }
+    }
+
+    static int align(int length) {
+        return (length + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    private static int payloadLength(int lengthField) {
+        return lengthField == Integer.MIN_VALUE ? 0 : lengthField;
+    }
+
+    private void rollover(int segmentOffset) {
+        int index = (int) (tail / segmentBytes);
+        if (segmentOffset + HEADER_LENGTH <= segmentBytes) {
+            writableSegment(index).putIntOrdered(segmentOffset, PADDING);
+        }
+        if (flushPolicy == FlushPolicy.ON_ROLLOVER) {
+            mappings.get(index).force();
+        }
+        // 先映射并发布下一个段，再推进 tail，读者看到新的 tail 时一定能拿到对应的段
+        writableSegment(index + 1);
+        TAIL_UPDATER.lazySet(this, (long) (index + 1) * segmentBytes);
+    }
+
+    /**
+     * 只在写线程调用：按需映射到第 index 个段，并把新的段数组发布给读者
+     */
+    private UnsafeBuffer writableSegment(int index) {
+        UnsafeBuffer[] current = segments;
+        if (index < current.length) {
+            return current[index];
+        }
+        UnsafeBuffer[] grown = Arrays.copyOf(current, index + 1);
+        for (int i = current.length; i <= index; i++) {
+            MappedByteBuffer mapping = map(segmentFile(i));
+            mappings.add(mapping);
+            grown[i] = new UnsafeBuffer(mapping);
+        }
+        segments = grown;
+        return grown[index];
+    }
+
+    private MappedByteBuffer map(File file) {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(segmentBytes);
+            return randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to map segment: " + file, e);
+        }
+    }
+
+    private File segmentFile(int index) {
+        return new File(directory, String.format("%010d.log", index));
+    }
+
+    private void recover() {
+        int last = 0;
+        while (segmentFile(last + 1).exists()) {
+            last++;
+        }
+        if (!segmentFile(last).exists()) {
+            writableSegment(0);
+            tail = 0;
+            return;
+        }
+        UnsafeBuffer segment = writableSegment(last);
+        int offset = 0;
+        while (offset + HEADER_LENGTH <= segmentBytes) {
+            int length = segment.getIntVolatile(offset);
+            if (length == 0) {
+                break;
+            }
+            if (length == PADDING) {
+                offset = segmentBytes;
+                break;
+            }
+            offset += align(HEADER_LENGTH + payloadLength(length));
+        }
+        tail = (long) last * segmentBytes + offset;
+    }
+}
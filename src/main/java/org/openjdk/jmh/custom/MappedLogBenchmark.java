@@ -0,0 +1,364 @@
+package org.openjdk.jmh.custom;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MappedLog 与 FileChannel + direct ByteBuffer 的对比：追加、从头顺序回放、按位置随机读取一条记录。
+ * <p>
+ * 两边的记录格式完全相同（[int length][payload]，8 字节对齐），FileChannel 一侧写在一个不分段的文件里。
+ * 追加测试每次调用往一个新的日志里写 {@link #APPEND_RECORDS} 条记录，结果按单条记录折算，
+ * 这样日志大小有上限（1024 字节的记录约 64MB），测到的不是 page cache 被写满之后的磁盘压力；
+ * 回放和随机读取先写好 logBytes 大小的日志，
+ * 随机读取的位置是均匀分布在整个日志中的 {@link #PROBE_COUNT} 条记录。
+ * 4GB 的日志需要同样大小的磁盘空间，并且最好能全部放进 page cache，否则测到的是磁盘。
+ * 直接运行 main 方法会在最后把耗时换算成 MB/s。
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-Xms1G", "-Xmx1G"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class MappedLogBenchmark {
+
+    /**
+     * 探测序列长度，必须是 2 的幂
+     */
+    static final int PROBE_COUNT = 4096;
+
+    /**
+     * 追加测试每次调用写入的记录数
+     */
+    static final int APPEND_RECORDS = 65536;
+
+    private static final int READ_CHUNK_BYTES = 1 << 20;
+
+    @Param({"64", "1024"})
+    private int recordBytes;
+
+    @Param({"268435456"})
+    private int segmentBytes;
+
+    private int cursor;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(MappedLogBenchmark.class.getSimpleName())
+                .build();
+
+        Collection<RunResult> results = new Runner(opt).run();
+
+        System.out.println();
+        System.out.println("Throughput:");
+        for (RunResult result : results) {
+            String benchmark = result.getParams().getBenchmark();
+            String method = benchmark.substring(benchmark.lastIndexOf('.') + 1);
+            int recordBytes = Integer.parseInt(result.getParams().getParam("recordBytes"));
+            double nanos = result.getPrimaryResult().getScore();
+            if (method.endsWith("Replay")) {
+                long logBytes = Long.parseLong(result.getParams().getParam("logBytes"));
+                System.out.printf("%-22s recordBytes=%-5d logBytes=%-11d %10.1f MB/s%n",
+                        method, recordBytes, logBytes, logBytes / nanos * 1000);
+            } else {
+                System.out.printf("%-22s recordBytes=%-5d %10.1f MB/s %12.1f records/ms%n",
+                        method, recordBytes, recordBytes / nanos * 1000, 1e6 / nanos);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class MappedAppender {
+
+        int segmentBytes;
+        MappedLog log;
+        UnsafeBuffer payload;
+
+        @Setup(Level.Iteration)
+        public void setUp(MappedLogBenchmark benchmark) {
+            segmentBytes = benchmark.segmentBytes;
+            payload = new UnsafeBuffer(ByteBuffer.allocateDirect(benchmark.recordBytes));
+            for (int i = 0; i < benchmark.recordBytes; i++) {
+                payload.putByte(i, (byte) i);
+            }
+        }
+
+        /**
+         * 每次调用都从一个空日志开始，APPEND_RECORDS 条记录足够长，Level.Invocation 的开销可以忽略；
+         * 第 0 个段在构造函数里就映射好了，映射和 tearDown 中的 unmap 都不计入测量
+         */
+        @Setup(Level.Invocation)
+        public void open() throws IOException {
+            File directory = Files.createTempDirectory("mappedlog").toFile();
+            log = new MappedLog(directory, segmentBytes, MappedLog.FlushPolicy.MANUAL);
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() {
+            log.close();
+            log.delete();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ChannelAppender {
+
+        File file;
+        RandomAccessFile randomAccessFile;
+        FileChannel channel;
+        ByteBuffer record;
+
+        @Setup(Level.Iteration)
+        public void setUp(MappedLogBenchmark benchmark) throws IOException {
+            file = File.createTempFile("channellog", "log");
+            randomAccessFile = new RandomAccessFile(file, "rw");
+            channel = randomAccessFile.getChannel();
+            record = ByteBuffer.allocateDirect(MappedLog.align(MappedLog.HEADER_LENGTH + benchmark.recordBytes))
+                    .order(ByteOrder.nativeOrder());
+            record.putInt(0, benchmark.recordBytes);
+            for (int i = 0; i < benchmark.recordBytes; i++) {
+                record.put(MappedLog.HEADER_LENGTH + i, (byte) i);
+            }
+        }
+
+        /**
+         * 每次调用前把文件截断为空，和 MappedAppender 一样从空日志开始写
+         */
+        @Setup(Level.Invocation)
+        public void truncate() throws IOException {
+            channel.truncate(0);
+            channel.position(0);
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() throws IOException {
+            channel.close();
+            randomAccessFile.close();
+            file.delete();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class MappedWritten {
+
+        @Param({"268435456", "4294967296"})
+        long logBytes;
+
+        MappedLog log;
+        long[] probes;
+
+        long checksum;
+        final MappedLog.RecordHandler handler = this::onRecord;
+
+        @Setup
+        public void setUp(MappedLogBenchmark benchmark) throws IOException {
+            File directory = Files.createTempDirectory("mappedlog").toFile();
+            log = new MappedLog(directory, benchmark.segmentBytes, MappedLog.FlushPolicy.MANUAL);
+            UnsafeBuffer payload = new UnsafeBuffer(ByteBuffer.allocateDirect(benchmark.recordBytes));
+            for (int i = 0; i < benchmark.recordBytes; i++) {
+                payload.putByte(i, (byte) i);
+            }
+
+            long records = logBytes / MappedLog.align(MappedLog.HEADER_LENGTH + benchmark.recordBytes);
+            long stride = Math.max(1, records / PROBE_COUNT);
+            probes = new long[PROBE_COUNT];
+            for (long i = 0; i < records; i++) {
+                long position = log.append(payload, 0, benchmark.recordBytes);
+                if (i % stride == 0 && i / stride < PROBE_COUNT) {
+                    probes[(int) (i / stride)] = position;
+                }
+            }
+            for (int i = (int) Math.min(records, PROBE_COUNT); i < PROBE_COUNT; i++) {
+                probes[i] = probes[i % (int) records];
+            }
+            shuffle(probes);
+        }
+
+        @TearDown
+        public void tearDown() {
+            log.close();
+            log.delete();
+        }
+
+        private void onRecord(DirectBuffer buffer, int offset, int length, long position) {
+            checksum += length + buffer.getByte(offset + length - 1);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ChannelWritten {
+
+        @Param({"268435456", "4294967296"})
+        long logBytes;
+
+        File file;
+        RandomAccessFile randomAccessFile;
+        FileChannel channel;
+        long[] probes;
+
+        /**
+         * 回放时的读缓冲区，随机读取时的窗口
+         */
+        ByteBuffer chunk;
+        ByteBuffer window;
+
+        @Setup
+        public void setUp(MappedLogBenchmark benchmark) throws IOException {
+            file = File.createTempFile("channellog", "log");
+            randomAccessFile = new RandomAccessFile(file, "rw");
+            channel = randomAccessFile.getChannel();
+
+            int recordLength = MappedLog.align(MappedLog.HEADER_LENGTH + benchmark.recordBytes);
+            ByteBuffer block = ByteBuffer.allocateDirect(READ_CHUNK_BYTES / recordLength * recordLength)
+                    .order(ByteOrder.nativeOrder());
+            for (int record = 0; record < block.capacity(); record += recordLength) {
+                block.putInt(record, benchmark.recordBytes);
+                for (int i = 0; i < benchmark.recordBytes; i++) {
+                    block.put(record + MappedLog.HEADER_LENGTH + i, (byte) i);
+                }
+            }
+
+            long records = logBytes / recordLength;
+            long written = 0;
+            while (written < records * recordLength) {
+                block.clear();
+                block.limit((int) Math.min(block.capacity(), records * recordLength - written));
+                while (block.hasRemaining()) {
+                    written += channel.write(block, written);
+                }
+            }
+
+            long stride = Math.max(1, records / PROBE_COUNT);
+            probes = new long[PROBE_COUNT];
+            for (int i = 0; i < PROBE_COUNT; i++) {
+                probes[i] = (i * stride % records) * recordLength;
+            }
+            shuffle(probes);
+
+            chunk = ByteBuffer.allocateDirect(READ_CHUNK_BYTES).order(ByteOrder.nativeOrder());
+            window = ByteBuffer.allocateDirect(4096).order(ByteOrder.nativeOrder());
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            channel.close();
+            randomAccessFile.close();
+            file.delete();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(APPEND_RECORDS)
+    public long mappedAppend(MappedAppender appender) {
+        MappedLog log = appender.log;
+        UnsafeBuffer payload = appender.payload;
+        long position = 0;
+        for (int i = 0; i < APPEND_RECORDS; i++) {
+            position = log.append(payload, 0, recordBytes);
+        }
+        return position;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(APPEND_RECORDS)
+    public long channelAppend(ChannelAppender appender) throws IOException {
+        FileChannel channel = appender.channel;
+        ByteBuffer record = appender.record;
+        long written = 0;
+        for (int i = 0; i < APPEND_RECORDS; i++) {
+            record.clear();
+            written += channel.write(record);
+        }
+        return written;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long mappedReplay(MappedWritten written) {
+        written.checksum = 0;
+        MappedLog.Reader reader = written.log.reader(0);
+        while (reader.poll(written.handler, Integer.MAX_VALUE) > 0) {
+            // 读到写入位置为止
+        }
+        return written.checksum;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long channelReplay(ChannelWritten written) throws IOException {
+        FileChannel channel = written.channel;
+        ByteBuffer chunk = written.chunk;
+        chunk.clear();
+        long checksum = 0;
+        long filePosition = 0;
+        int read;
+        while ((read = channel.read(chunk, filePosition)) > 0) {
+            filePosition += read;
+            chunk.flip();
+            while (chunk.remaining() >= MappedLog.HEADER_LENGTH) {
+                int position = chunk.position();
+                int length = chunk.getInt(position);
+                int recordLength = MappedLog.align(MappedLog.HEADER_LENGTH + length);
+                if (chunk.remaining() < recordLength) {
+                    break;
+                }
+                checksum += length + chunk.get(position + MappedLog.HEADER_LENGTH + length - 1);
+                chunk.position(position + recordLength);
+            }
+            // 不完整的记录移到开头，下次接着读
+            chunk.compact();
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public long mappedRandomLookup(MappedWritten written) {
+        written.checksum = 0;
+        written.log.read(written.probes[cursor++ & (PROBE_COUNT - 1)], written.handler);
+        return written.checksum;
+    }
+
+    @Benchmark
+    public long channelRandomLookup(ChannelWritten written) throws IOException {
+        long position = written.probes[cursor++ & (PROBE_COUNT - 1)];
+        ByteBuffer window = written.window;
+        window.clear();
+        // 先读一个窗口，记录比窗口长时再读剩下的部分
+        written.channel.read(window, position);
+        int length = window.getInt(0);
+        ByteBuffer record = window;
+        if (MappedLog.HEADER_LENGTH + length > window.capacity()) {
+            record = ByteBuffer.allocateDirect(MappedLog.HEADER_LENGTH + length);
+            written.channel.read(record, position);
+        }
+        return length + record.get(MappedLog.HEADER_LENGTH + length - 1);
+    }
+
+    private static void shuffle(long[] values) {
+        Random random = new Random(42L);
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long t = values[i];
+            values[i] = values[j];
+            values[j] = t;
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package org.openjdk.jmh.custom;
+
+import org.agrona.MutableDirectBuffer;
+
+/**
+ * 行情消息的 flyweight：20 个固定字段、一个盘口档位的重复组、两个变长 ASCII 字段（symbol、text）。
+ * <p>
+ * 编码顺序：先写固定字段（任意顺序），然后 {@link #levelsCount(int)} 并逐个写档位，最后依次 putSymbol、putText。
+ * 解码顺序：固定字段随机读取，然后 {@link #levels()} 遍历档位，最后依次读取 symbol、text。
+ */
+public class MarketDataMessage extends MessageFlyweight {
+
+    static final int SEQUENCE_OFFSET = 0;
+    static final int TIMESTAMP_OFFSET = 8;
+    static final int BID_PRICE_OFFSET = 16;
+    static final int ASK_PRICE_OFFSET = 24;
+    static final int LAST_PRICE_OFFSET = 32;
+    static final int OPEN_PRICE_OFFSET = 40;
+    static final int HIGH_PRICE_OFFSET = 48;
+    static final int LOW_PRICE_OFFSET = 56;
+    static final int CLOSE_PRICE_OFFSET = 64;
+    static final int VOLUME_OFFSET = 72;
+    static final int OPEN_INTEREST_OFFSET = 80;
+    static final int INSTRUMENT_ID_OFFSET = 88;
+    static final int BID_SIZE_OFFSET = 92;
+    static final int ASK_SIZE_OFFSET = 96;
+    static final int LAST_SIZE_OFFSET = 100;
+    static final int TRADE_COUNT_OFFSET = 104;
+    static final int FLAGS_OFFSET = 108;
+    static final int VENUE_OFFSET = 112;
+    static final int SIDE_OFFSET = 114;
+    static final int STATUS_OFFSET = 115;
+
+    static final int BLOCK_LENGTH = 116;
+
+    private final Levels levels = new Levels();
+
+    @Override
+    public int blockLength() {
+        return BLOCK_LENGTH;
+    }
+
+    @Override
+    public MarketDataMessage wrap(MutableDirectBuffer buffer, int offset) {
+        super.wrap(buffer, offset);
+        return this;
+    }
+
+    public long sequence() {
+        return buffer.getLong(offset + SEQUENCE_OFFSET, BYTE_ORDER);
+    }
+
+    public MarketDataMessage sequence(long value) {
+        buffer.putLong(offset + SEQUENCE_OFFSET, value, BYTE_ORDER);
+        return this;
+    }
+
+    public long timestamp() {
+        return buffer.getLong(offset + TIMESTAMP_OFFSET, BYTE_ORDER);
+    }
+
+    public MarketDataMessage timestamp(long value) {
+        buffer.putLong(offset + TIMESTAMP_OFFSET, value, BYTE_ORDER);
+        return this;
+    }
+
+    public long bidPrice() {
+        return buffer.getLong(offset + BID_PRICE_OFFSET, BYTE_ORDER);
+    }
+
+    public MarketDataMessage bidPrice(long value) {
+        buffer.putLong(offset + BID_PRICE_OFFSET, value, BYTE_ORDER);
+        return this;
+    }
+
+    public long askPrice() {
+        return buffer.getLong(offset + ASK_PRICE_OFFSET, BYTE_ORDER);
+    }
+
+    public MarketDataMessage askPrice(long value) {
+        buffer.putLong(offset + ASK_PRICE_OFFSET, value, BYTE_ORDER);
+        return this;
+    }
+
+    public long lastPrice() {
+        return buffer.getLong(offset + LAST_PRICE_OFFSET, BYTE_ORDER);
+    }
+
+    public MarketDataMessage lastPrice(long value) {
+        buffer.putLong(offset + LAST_PRICE_OFFSET, value, BYTE_ORDER);
+        return this;
+    }
+
+    public long openPrice() {
+        return buffer.getLong(offset + OPEN_PRICE_OFFSET, BYTE_ORDER);
+    }
+
+    public MarketDataMessage openPrice(long value) {
+        buffer.putLong(offset + OPEN_PRICE_OFFSET, value, BYTE_ORDER);
+        return this;
+    }
+
+    public long highPrice() {
+        return buffer.getLong(offset + HIGH_PRICE_OFFSET, BYTE_ORDER);
+    }
+
+    public MarketDataMessage highPrice(long value) {
+        buffer.putLong(offset + HIGH_PRICE_OFFSET, value, BYTE_ORDER);
+        return this;
+    }
+
+    public long lowPrice() {
+        return buffer.getLong(offset + LOW_PRICE_OFFSET, BYTE_ORDER);
+    }
+
+    public MarketDataMessage lowPrice(long value) {
+        buffer.putLong(offset + LOW_PRICE_OFFSET, value, BYTE_ORDER);
+        return this;
+    }
+
+    public long closePrice() {
+        return buffer.getLong(offset + CLOSE_PRICE_OFFSET, BYTE_ORDER);
+    }
+
+    public MarketDataMessage closePrice(long value) {
+        buffer.putLong(offset + CLOSE_PRICE_OFFSET, value, BYTE_ORDER);
+        return this;
+    }
+
+    public long volume() {
+        return buffer.getLong(offset + VOLUME_OFFSET, BYTE_ORDER);
+    }
+
+    public MarketDataMessage volume(long value) {
+        buffer.putLong(offset + VOLUME_OFFSET, value, BYTE_ORDER);
+        return this;
+    }
+
+    public long openInterest() {
+        return buffer.getLong(offset + OPEN_INTEREST_OFFSET, BYTE_ORDER);
+    }
+
+    public MarketDataMessage openInterest(long value) {
+        buffer.putLong(offset + OPEN_INTEREST_OFFSET, value, BYTE_ORDER);
+        return this;
+    }
+
+    public int instrumentId() {
+        return buffer.getInt(offset + INSTRUMENT_ID_OFFSET, BYTE_ORDER);
+    }
+
+    public MarketDataMessage instrumentId(int value) {
+        buffer.putInt(offset + INSTRUMENT_ID_OFFSET, value, BYTE_ORDER);
+        return this;
+    }
+
+    public int bidSize() {
+        return buffer.getInt(offset + BID_SIZE_OFFSET, BYTE_ORDER);
+    }
+
+    public MarketDataMessage bidSize(int value) {
+        buffer.putInt(offset + BID_SIZE_OFFSET, value, BYTE_ORDER);
+        return this;
+    }
+
+    public int askSize() {
+        return buffer.getInt(offset + ASK_SIZE_OFFSET, BYTE_ORDER);
+    }
+
+    public MarketDataMessage askSize(int value) {
+        buffer.putInt(offset + ASK_SIZE_OFFSET, value, BYTE_ORDER);
+        return this;
+    }
+
+    public int lastSize() {
+        return buffer.getInt(offset + LAST_SIZE_OFFSET, BYTE_ORDER);
+    }
+
+    public MarketDataMessage lastSize(int value) {
+        buffer.putInt(offset + LAST_SIZE_OFFSET, value, BYTE_ORDER);
+        return this;
+    }
+
+    public int tradeCount() {
+        return buffer.getInt(offset + TRADE_COUNT_OFFSET, BYTE_ORDER);
+    }
+
+    public MarketDataMessage tradeCount(int value) {
+        buffer.putInt(offset + TRADE_COUNT_OFFSET, value, BYTE_ORDER);
+        return this;
+    }
+
+    public int flags() {
+        return buffer.getInt(offset + FLAGS_OFFSET, BYTE_ORDER);
+    }
+
+    public MarketDataMessage flags(int value) {
+        buffer.putInt(offset + FLAGS_OFFSET, value, BYTE_ORDER);
+        return this;
+    }
+
+    public short venue() {
+        return buffer.getShort(offset + VENUE_OFFSET, BYTE_ORDER);
+    }
+
+    public MarketDataMessage venue(short value) {
+        buffer.putShort(offset + VENUE_OFFSET, value, BYTE_ORDER);
+        return this;
+    }
+
+    public byte side() {
+        return buffer.getByte(offset + SIDE_OFFSET);
+    }
+
+    public MarketDataMessage side(byte value) {
+        buffer.putByte(offset + SIDE_OFFSET, value);
+        return this;
+    }
+
+    public byte status() {
+        return buffer.getByte(offset + STATUS_OFFSET);
+    }
+
+    public MarketDataMessage status(byte value) {
+        buffer.putByte(offset + STATUS_OFFSET, value);
+        return this;
+    }
+
+    /**
+     * 开始读取档位组
+     */
+    public Levels levels() {
+        levels.wrapDecode(this);
+        return levels;
+    }
+
+    /**
+     * 开始写入 count 个档位
+     */
+    public Levels levelsCount(int count) {
+        levels.wrapEncode(this, count);
+        return levels;
+    }
+
+    public MarketDataMessage putSymbol(CharSequence value) {
+        putVarAscii(value);
+        return this;
+    }
+
+    public int symbol(StringBuilder target) {
+        return getVarAscii(target);
+    }
+
+    public MarketDataMessage putText(CharSequence value) {
+        putVarAscii(value);
+        return this;
+    }
+
+    public int text(StringBuilder target) {
+        return getVarAscii(target);
+    }
+
+    public int skipText() {
+        return skipVarAscii();
+    }
+
+    /**
+     * 盘口档位：价格、数量、订单数
+     */
+    public static final class Levels extends RepeatingGroupFlyweight {
+
+        static final int PRICE_OFFSET = 0;
+        static final int SIZE_OFFSET = 8;
+        static final int ORDERS_OFFSET = 12;
+
+        static final int ENTRY_LENGTH = 16;
+
+        @Override
+        public int entryLength() {
+            return ENTRY_LENGTH;
+        }
+
+        @Override
+        public Levels next() {
+            super.next();
+            return this;
+        }
+
+        public long price() {
+            return buffer.getLong(entryOffset + PRICE_OFFSET, BYTE_ORDER);
+        }
+
+        public Levels price(long value) {
+            buffer.putLong(entryOffset + PRICE_OFFSET, value, BYTE_ORDER);
+            return this;
+        }
+
+        public int size() {
+            return buffer.getInt(entryOffset + SIZE_OFFSET, BYTE_ORDER);
+        }
+
+        public Levels size(int value) {
+            buffer.putInt(entryOffset + SIZE_OFFSET, value, BYTE_ORDER);
+            return this;
+        }
+
+        public int orders() {
+            return buffer.getInt(entryOffset + ORDERS_OFFSET, BYTE_ORDER);
+        }
+
+        public Levels orders(int value) {
+            buffer.putInt(entryOffset + ORDERS_OFFSET, value, BYTE_ORDER);
+            return this;
+        }
+    }
+}
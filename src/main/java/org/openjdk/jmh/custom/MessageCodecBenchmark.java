@@ -0,0 +1,432 @@
+package org.openjdk.jmh.custom;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MarketDataMessage 的 flyweight 编解码，与基于 DataInputStream / DataOutputStream 的朴素实现对比。
+ * <p>
+ * 同一块内存（{@link Buffers#memory} 选择堆内或 direct 的 ByteBuffer）分别用两种方式访问：
+ * flyweight* 通过 UnsafeBuffer 包装后读写，byteBuffer* 用 {@link ByteBufferCodec} 直接调用 ByteBuffer 的
+ * getLong / putLong 等方法（order 为 LITTLE_ENDIAN），两者的消息布局完全相同。
+ * 朴素实现每条消息都新建流和一个持有 String 的 POJO，是大多数手写解码器的样子。
+ * 两边的消息内容相同：20 个固定字段、{@link #LEVELS} 个档位、symbol 和 text 两个变长字段。
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgs = {"-Xms1G", "-Xmx1G"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(value = 1)
+public class MessageCodecBenchmark {
+
+    static final int LEVELS = 10;
+
+    private static final int CAPACITY = 4096;
+
+    private static final String SYMBOL = "IF2003";
+    private static final String TEXT = "CFFEX index future snapshot";
+
+    private final StringBuilder symbol = new StringBuilder(64);
+    private final StringBuilder text = new StringBuilder(64);
+
+    private byte[] naiveEncoded;
+    private ByteArrayOutputStream naiveOutput;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(MessageCodecBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @State(Scope.Thread)
+    public static class Buffers {
+
+        @Param({"heap", "direct"})
+        String memory;
+
+        ByteBuffer encodeByteBuffer;
+        ByteBuffer decodeByteBuffer;
+
+        /**
+         * 分别包装 encodeByteBuffer 和 decodeByteBuffer，和 ByteBuffer 访问的是同一块内存
+         */
+        UnsafeBuffer encodeBuffer;
+        UnsafeBuffer decodeBuffer;
+
+        final MarketDataMessage encoder = new MarketDataMessage();
+        final MarketDataMessage decoder = new MarketDataMessage();
+
+        @Setup
+        public void setUp() {
+            encodeByteBuffer = allocate();
+            decodeByteBuffer = allocate();
+            encodeBuffer = new UnsafeBuffer(encodeByteBuffer);
+            decodeBuffer = new UnsafeBuffer(decodeByteBuffer);
+            encode(encoder.wrap(decodeBuffer, 0), 1L);
+        }
+
+        private ByteBuffer allocate() {
+            ByteBuffer buffer = "direct".equals(memory)
+                    ? ByteBuffer.allocateDirect(CAPACITY)
+                    : ByteBuffer.allocate(CAPACITY);
+            return buffer.order(MessageFlyweight.BYTE_ORDER);
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        naiveOutput = new ByteArrayOutputStream(CAPACITY);
+        NaiveMarketData.sample(1L).encode(new DataOutputStream(naiveOutput));
+        naiveEncoded = naiveOutput.toByteArray();
+    }
+
+    @Benchmark
+    public int flyweightEncode(Buffers buffers) {
+        return encode(buffers.encoder.wrap(buffers.encodeBuffer, 0), 2L);
+    }
+
+    @Benchmark
+    public long flyweightDecode(Buffers buffers) {
+        MarketDataMessage message = buffers.decoder.wrap(buffers.decodeBuffer, 0);
+        long checksum = message.sequence() + message.timestamp() + message.bidPrice() + message.askPrice()
+                + message.lastPrice() + message.openPrice() + message.highPrice() + message.lowPrice()
+                + message.closePrice() + message.volume() + message.openInterest() + message.instrumentId()
+                + message.bidSize() + message.askSize() + message.lastSize() + message.tradeCount()
+                + message.flags() + message.venue() + message.side() + message.status();
+        MarketDataMessage.Levels levels = message.levels();
+        while (levels.hasNext()) {
+            levels.next();
+            checksum += levels.price() + levels.size() + levels.orders();
+        }
+        symbol.setLength(0);
+        text.setLength(0);
+        checksum += message.symbol(symbol);
+        checksum += message.text(text);
+        return checksum;
+    }
+
+    @Benchmark
+    public int byteBufferEncode(Buffers buffers) {
+        return ByteBufferCodec.encode(buffers.encodeByteBuffer, 2L);
+    }
+
+    @Benchmark
+    public long byteBufferDecode(Buffers buffers) {
+        symbol.setLength(0);
+        text.setLength(0);
+        return ByteBufferCodec.decode(buffers.decodeByteBuffer, symbol, text);
+    }
+
+    @Benchmark
+    public int naiveEncode() throws IOException {
+        naiveOutput.reset();
+        NaiveMarketData.sample(2L).encode(new DataOutputStream(naiveOutput));
+        return naiveOutput.size();
+    }
+
+    @Benchmark
+    public long naiveDecode() throws IOException {
+        NaiveMarketData data = NaiveMarketData.decode(new DataInputStream(new ByteArrayInputStream(naiveEncoded)));
+        long checksum = data.sequence + data.timestamp + data.bidPrice + data.askPrice
+                + data.lastPrice + data.openPrice + data.highPrice + data.lowPrice
+                + data.closePrice + data.volume + data.openInterest + data.instrumentId
+                + data.bidSize + data.askSize + data.lastSize + data.tradeCount
+                + data.flags + data.venue + data.side + data.status;
+        for (int i = 0; i < data.levelPrices.length; i++) {
+            checksum += data.levelPrices[i] + data.levelSizes[i] + data.levelOrders[i];
+        }
+        return checksum + data.symbol.length() + data.text.length();
+    }
+
+    /**
+     * 写一条内容固定的消息，返回消息长度
+     */
+    static int encode(MarketDataMessage message, long sequence) {
+        message.sequence(sequence)
+                .timestamp(1584662400000000000L + sequence)
+                .bidPrice(3_890_200L)
+                .askPrice(3_890_400L)
+                .lastPrice(3_890_200L)
+                .openPrice(3_850_000L)
+                .highPrice(3_912_800L)
+                .lowPrice(3_842_600L)
+                .closePrice(3_871_000L)
+                .volume(123_456L)
+                .openInterest(98_765L)
+                .instrumentId(300)
+                .bidSize(12)
+                .askSize(7)
+                .lastSize(1)
+                .tradeCount(4_321)
+                .flags(0x5)
+                .venue((short) 3)
+                .side((byte) 'B')
+                .status((byte) 1);
+        MarketDataMessage.Levels levels = message.levelsCount(LEVELS);
+        for (int i = 0; i < LEVELS; i++) {
+            levels.next()
+                    .price(3_890_200L - i * 200L)
+                    .size(10 + i)
+                    .orders(1 + i);
+        }
+        message.putSymbol(SYMBOL).putText(TEXT);
+        return message.encodedLength();
+    }
+
+    /**
+     * 与 MarketDataMessage 布局相同的编解码，只通过 ByteBuffer 的绝对位置 get / put 访问，
+     * buffer 的 order 必须是 {@link MessageFlyweight#BYTE_ORDER}
+     */
+    static final class ByteBufferCodec {
+
+        private ByteBufferCodec() {
+        }
+
+        static int encode(ByteBuffer buffer, long sequence) {
+            buffer.putLong(MarketDataMessage.SEQUENCE_OFFSET, sequence);
+            buffer.putLong(MarketDataMessage.TIMESTAMP_OFFSET, 1584662400000000000L + sequence);
+            buffer.putLong(MarketDataMessage.BID_PRICE_OFFSET, 3_890_200L);
+            buffer.putLong(MarketDataMessage.ASK_PRICE_OFFSET, 3_890_400L);
+            buffer.putLong(MarketDataMessage.LAST_PRICE_OFFSET, 3_890_200L);
+            buffer.putLong(MarketDataMessage.OPEN_PRICE_OFFSET, 3_850_000L);
+            buffer.putLong(MarketDataMessage.HIGH_PRICE_OFFSET, 3_912_800L);
+            buffer.putLong(MarketDataMessage.LOW_PRICE_OFFSET, 3_842_600L);
+            buffer.putLong(MarketDataMessage.CLOSE_PRICE_OFFSET, 3_871_000L);
+            buffer.putLong(MarketDataMessage.VOLUME_OFFSET, 123_456L);
+            buffer.putLong(MarketDataMessage.OPEN_INTEREST_OFFSET, 98_765L);
+            buffer.putInt(MarketDataMessage.INSTRUMENT_ID_OFFSET, 300);
+            buffer.putInt(MarketDataMessage.BID_SIZE_OFFSET, 12);
+            buffer.putInt(MarketDataMessage.ASK_SIZE_OFFSET, 7);
+            buffer.putInt(MarketDataMessage.LAST_SIZE_OFFSET, 1);
+            buffer.putInt(MarketDataMessage.TRADE_COUNT_OFFSET, 4_321);
+            buffer.putInt(MarketDataMessage.FLAGS_OFFSET, 0x5);
+            buffer.putShort(MarketDataMessage.VENUE_OFFSET, (short) 3);
+            buffer.put(MarketDataMessage.SIDE_OFFSET, (byte) 'B');
+            buffer.put(MarketDataMessage.STATUS_OFFSET, (byte) 1);
+
+            int limit = MarketDataMessage.BLOCK_LENGTH;
+            buffer.putShort(limit, (short) MarketDataMessage.Levels.ENTRY_LENGTH);
+            buffer.putShort(limit + Short.BYTES, (short) LEVELS);
+            limit += RepeatingGroupFlyweight.HEADER_LENGTH;
+            for (int i = 0; i < LEVELS; i++) {
+                buffer.putLong(limit + MarketDataMessage.Levels.PRICE_OFFSET, 3_890_200L - i * 200L);
+                buffer.putInt(limit + MarketDataMessage.Levels.SIZE_OFFSET, 10 + i);
+                buffer.putInt(limit + MarketDataMessage.Levels.ORDERS_OFFSET, 1 + i);
+                limit += MarketDataMessage.Levels.ENTRY_LENGTH;
+            }
+            limit = putVarAscii(buffer, limit, SYMBOL);
+            return putVarAscii(buffer, limit, TEXT);
+        }
+
+        /**
+         * 读取全部字段，返回与 flyweightDecode 相同的校验和
+         */
+        static long decode(ByteBuffer buffer, StringBuilder symbol, StringBuilder text) {
+            long checksum = buffer.getLong(MarketDataMessage.SEQUENCE_OFFSET)
+                    + buffer.getLong(MarketDataMessage.TIMESTAMP_OFFSET)
+                    + buffer.getLong(MarketDataMessage.BID_PRICE_OFFSET)
+                    + buffer.getLong(MarketDataMessage.ASK_PRICE_OFFSET)
+                    + buffer.getLong(MarketDataMessage.LAST_PRICE_OFFSET)
+                    + buffer.getLong(MarketDataMessage.OPEN_PRICE_OFFSET)
+                    + buffer.getLong(MarketDataMessage.HIGH_PRICE_OFFSET)
+                    + buffer.getLong(MarketDataMessage.LOW_PRICE_OFFSET)
+                    + buffer.getLong(MarketDataMessage.CLOSE_PRICE_OFFSET)
+                    + buffer.getLong(MarketDataMessage.VOLUME_OFFSET)
+                    + buffer.getLong(MarketDataMessage.OPEN_INTEREST_OFFSET)
+                    + buffer.getInt(MarketDataMessage.INSTRUMENT_ID_OFFSET)
+                    + buffer.getInt(MarketDataMessage.BID_SIZE_OFFSET)
+                    + buffer.getInt(MarketDataMessage.ASK_SIZE_OFFSET)
+                    + buffer.getInt(MarketDataMessage.LAST_SIZE_OFFSET)
+                    + buffer.getInt(MarketDataMessage.TRADE_COUNT_OFFSET)
+                    + buffer.getInt(MarketDataMessage.FLAGS_OFFSET)
+                    + buffer.getShort(MarketDataMessage.VENUE_OFFSET)
+                    + buffer.get(MarketDataMessage.SIDE_OFFSET)
+                    + buffer.get(MarketDataMessage.STATUS_OFFSET);
+
+            int limit = MarketDataMessage.BLOCK_LENGTH;
+            int blockLength = buffer.getShort(limit) & 0xFFFF;
+            int count = buffer.getShort(limit + Short.BYTES) & 0xFFFF;
+            limit += RepeatingGroupFlyweight.HEADER_LENGTH;
+            for (int i = 0; i < count; i++) {
+                checksum += buffer.getLong(limit + MarketDataMessage.Levels.PRICE_OFFSET)
+                        + buffer.getInt(limit + MarketDataMessage.Levels.SIZE_OFFSET)
+                        + buffer.getInt(limit + MarketDataMessage.Levels.ORDERS_OFFSET);
+                limit += blockLength;
+            }
+            limit = getVarAscii(buffer, limit, symbol);
+            getVarAscii(buffer, limit, text);
+            return checksum + symbol.length() + text.length();
+        }
+
+        private static int putVarAscii(ByteBuffer buffer, int limit, String value) {
+            int length = value.length();
+            buffer.putShort(limit, (short) length);
+            int start = limit + MessageFlyweight.VAR_LENGTH_HEADER;
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                buffer.put(start + i, c < 0x80 ? (byte) c : (byte) '?');
+            }
+            return start + length;
+        }
+
+        private static int getVarAscii(ByteBuffer buffer, int limit, StringBuilder target) {
+            int length = buffer.getShort(limit) & 0xFFFF;
+            int start = limit + MessageFlyweight.VAR_LENGTH_HEADER;
+            for (int i = 0; i < length; i++) {
+                target.append((char) buffer.get(start + i));
+            }
+            return start + length;
+        }
+    }
+
+    /**
+     * 对照组：字段用 DataOutputStream 顺序写出（大端序），解码到一个普通对象里
+     */
+    static final class NaiveMarketData {
+
+        long sequence;
+        long timestamp;
+        long bidPrice;
+        long askPrice;
+        long lastPrice;
+        long openPrice;
+        long highPrice;
+        long lowPrice;
+        long closePrice;
+        long volume;
+        long openInterest;
+        int instrumentId;
+        int bidSize;
+        int askSize;
+        int lastSize;
+        int tradeCount;
+        int flags;
+        short venue;
+        byte side;
+        byte status;
+        long[] levelPrices;
+        int[] levelSizes;
+        int[] levelOrders;
+        String symbol;
+        String text;
+
+        static NaiveMarketData sample(long sequence) {
+            NaiveMarketData data = new NaiveMarketData();
+            data.sequence = sequence;
+            data.timestamp = 1584662400000000000L + sequence;
+            data.bidPrice = 3_890_200L;
+            data.askPrice = 3_890_400L;
+            data.lastPrice = 3_890_200L;
+            data.openPrice = 3_850_000L;
+            data.highPrice = 3_912_800L;
+            data.lowPrice = 3_842_600L;
+            data.closePrice = 3_871_000L;
+            data.volume = 123_456L;
+            data.openInterest = 98_765L;
+            data.instrumentId = 300;
+            data.bidSize = 12;
+            data.askSize = 7;
+            data.lastSize = 1;
+            data.tradeCount = 4_321;
+            data.flags = 0x5;
+            data.venue = 3;
+            data.side = 'B';
+            data.status = 1;
+            data.levelPrices = new long[LEVELS];
+            data.levelSizes = new int[LEVELS];
+            data.levelOrders = new int[LEVELS];
+            for (int i = 0; i < LEVELS; i++) {
+                data.levelPrices[i] = 3_890_200L - i * 200L;
+                data.levelSizes[i] = 10 + i;
+                data.levelOrders[i] = 1 + i;
+            }
+            data.symbol = SYMBOL;
+            data.text = TEXT;
+            return data;
+        }
+
+        void encode(DataOutputStream out) throws IOException {
+            out.writeLong(sequence);
+            out.writeLong(timestamp);
+            out.writeLong(bidPrice);
+            out.writeLong(askPrice);
+            out.writeLong(lastPrice);
+            out.writeLong(openPrice);
+            out.writeLong(highPrice);
+            out.writeLong(lowPrice);
+            out.writeLong(closePrice);
+            out.writeLong(volume);
+            out.writeLong(openInterest);
+            out.writeInt(instrumentId);
+            out.writeInt(bidSize);
+            out.writeInt(askSize);
+            out.writeInt(lastSize);
+            out.writeInt(tradeCount);
+            out.writeInt(flags);
+            out.writeShort(venue);
+            out.writeByte(side);
+            out.writeByte(status);
+            out.writeShort(levelPrices.length);
+            for (int i = 0; i < levelPrices.length; i++) {
+                out.writeLong(levelPrices[i]);
+                out.writeInt(levelSizes[i]);
+                out.writeInt(levelOrders[i]);
+            }
+            out.writeUTF(symbol);
+            out.writeUTF(text);
+        }
+
+        static NaiveMarketData decode(DataInputStream in) throws IOException {
+            NaiveMarketData data = new NaiveMarketData();
+            data.sequence = in.readLong();
+            data.timestamp = in.readLong();
+            data.bidPrice = in.readLong();
+            data.askPrice = in.readLong();
+            data.lastPrice = in.readLong();
+            data.openPrice = in.readLong();
+            data.highPrice = in.readLong();
+            data.lowPrice = in.readLong();
+            data.closePrice = in.readLong();
+            data.volume = in.readLong();
+            data.openInterest = in.readLong();
+            data.instrumentId = in.readInt();
+            data.bidSize = in.readInt();
+            data.askSize = in.readInt();
+            data.lastSize = in.readInt();
+            data.tradeCount = in.readInt();
+            data.flags = in.readInt();
+            data.venue = in.readShort();
+            data.side = in.readByte();
+            data.status = in.readByte();
+            int levels = in.readUnsignedShort();
+            data.levelPrices = new long[levels];
+            data.levelSizes = new int[levels];
+            data.levelOrders = new int[levels];
+            for (int i = 0; i < levels; i++) {
+                data.levelPrices[i] = in.readLong();
+                data.levelSizes[i] = in.readInt();
+                data.levelOrders[i] = in.readInt();
+            }
+            data.symbol = in.readUTF();
+            data.text = in.readUTF();
+            return data;
+        }
+    }
+}
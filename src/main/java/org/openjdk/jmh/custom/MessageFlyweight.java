@@ -0,0 +1,130 @@
+package org.openjdk.jmh.custom;
+
+import org.agrona.MutableDirectBuffer;
+
+import java.nio.ByteOrder;
+
+/**
+ * 二进制消息 flyweight 的基类：不拷贝数据，直接在 wrap 进来的缓冲区上按偏移量读写字段，每条消息不分配任何对象。
+ * <p>
+ * 消息布局为：固定长度的字段块（{@link #blockLength()}），之后依次是零个或多个 {@link RepeatingGroupFlyweight}
+ * 和变长 ASCII 字段（[uint16 length][bytes]）。固定字段可以随机访问；重复组和变长字段通过 limit 顺序定位，
+ * 读写时必须按照声明的顺序进行。所有字段都使用小端字节序。
+ * 同一个 flyweight 实例可以反复 wrap 不同的缓冲区，不是线程安全的。
+ */
+public abstract class MessageFlyweight {
+
+    public static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /**
+     * 变长字段长度前缀的字节数
+     */
+    public static final int VAR_LENGTH_HEADER = Short.BYTES;
+
+    public static final int MAX_VAR_LENGTH = 0xFFFF;
+
+    protected MutableDirectBuffer buffer;
+    protected int offset;
+
+    private int limit;
+
+    /**
+     * 固定字段块的长度
+     */
+    public abstract int blockLength();
+
+    /**
+     * 把 flyweight 指向 buffer 中 offset 处的一条消息，读写都从这里开始
+     */
+    public MessageFlyweight wrap(MutableDirectBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.limit = offset + blockLength();
+        return this;
+    }
+
+    public MutableDirectBuffer buffer() {
+        return buffer;
+    }
+
+    public int offset() {
+        return offset;
+    }
+
+    /**
+     * 下一个重复组或变长字段的起始位置
+     */
+    public int limit() {
+        return limit;
+    }
+
+    public void limit(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * 到目前为止读过或写过的字节数；全部字段处理完之后就是整条消息的长度
+     */
+    public int encodedLength() {
+        return limit - offset;
+    }
+
+    /**
+     * 在 limit 处写入一个变长 ASCII 字段，非 ASCII 字符写成 '?'
+     */
+    protected void putVarAscii(CharSequence value) {
+        int length = value.length();
+        if (length > MAX_VAR_LENGTH) {
+            throw new IllegalArgumentException("var field is too long: " + length);
+        }
+        MutableDirectBuffer buffer = this.buffer;
+        int limit = this.limit;
+        buffer.putShort(limit, (short) length, BYTE_ORDER);
+        int start = limit + VAR_LENGTH_HEADER;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            buffer.putByte(start + i, c < 0x80 ? (byte) c : (byte) '?');
+        }
+        this.limit = start + length;
+    }
+
+    /**
+     * limit 处变长字段的长度，不移动 limit
+     */
+    protected int varAsciiLength() {
+        return buffer.getShort(limit, BYTE_ORDER) & 0xFFFF;
+    }
+
+    /**
+     * 把 limit 处的变长 ASCII 字段追加到 target，返回字段长度
+     */
+    protected int getVarAscii(StringBuilder target) {
+        MutableDirectBuffer buffer = this.buffer;
+        int length = varAsciiLength();
+        int start = limit + VAR_LENGTH_HEADER;
+        for (int i = 0; i < length; i++) {
+            target.append((char) buffer.getByte(start + i));
+        }
+        this.limit = start + length;
+        return length;
+    }
+
+    /**
+     * 把 limit 处的变长字段原样拷贝到 target，返回字段长度
+     */
+    protected int getVarAscii(MutableDirectBuffer target, int targetOffset) {
+        int length = varAsciiLength();
+        buffer.getBytes(limit + VAR_LENGTH_HEADER, target, targetOffset, length);
+        this.limit += VAR_LENGTH_HEADER + length;
+        return length;
+    }
+
+    /**
+     * 跳过 limit 处的变长字段，返回字段长度
+     */
+    protected int skipVarAscii() {
+        int length = varAsciiLength();
+        this.limit += VAR_LENGTH_HEADER + length;
+        return length;
+    }
+}
@@ -0,0 +1,163 @@
+package org.openjdk.jmh.custom;
+
+import org.agrona.concurrent.UnsafeBuffer;
+
+/**
+ * 数据存放在堆外的开放寻址 int -&gt; int 映射。
+ * <p>
+ * key 和 value 分别放在两个 direct buffer 里（单个 buffer 最多 2GB），key 为 0 的槽位表示空，
+ * key 0 本身单独记录。get 找不到时返回构造时指定的 missingValue。
+ */
+public class OffHeapInt2IntHashMap {
+
+    private static final int MAX_CAPACITY = 1 << 28;
+
+    private final float loadFactor;
+    private final int missingValue;
+
+    private UnsafeBuffer keys;
+    private UnsafeBuffer values;
+    private int mask;
+    private int resizeThreshold;
+    private int size;
+
+    private boolean containsZeroKey;
+    private int zeroKeyValue;
+
+    public OffHeapInt2IntHashMap(int expectedSize, int missingValue) {
+        this(expectedSize, IntOpenHashSet.DEFAULT_LOAD_FACTOR, missingValue);
+    }
+
+    public OffHeapInt2IntHashMap(int expectedSize, float loadFactor, int missingValue) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must be non-negative: " + expectedSize);
+        }
+        if (!(loadFactor > 0f && loadFactor < 1f)) {
+            throw new IllegalArgumentException("loadFactor must be in (0, 1): " + loadFactor);
+        }
+        this.loadFactor = loadFactor;
+        this.missingValue = missingValue;
+        int capacity = IntOpenHashSet.tableSizeFor(expectedSize, loadFactor);
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalStateException("expectedSize is too large for a single direct buffer: " + expectedSize);
+        }
+        allocate(capacity);
+    }
+
+    public int missingValue() {
+        return missingValue;
+    }
+
+    public int get(int key) {
+        if (key == 0) {
+            return containsZeroKey ? zeroKeyValue : missingValue;
+        }
+
+        UnsafeBuffer keys = this.keys;
+        int index = IntOpenHashSet.mix(key) & mask;
+        int existing;
+        while ((existing = keys.getInt(index << 2)) != 0) {
+            if (existing == key) {
+                return values.getInt(index << 2);
+            }
+            index = (index + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    public boolean containsKey(int key) {
+        if (key == 0) {
+            return containsZeroKey;
+        }
+
+        UnsafeBuffer keys = this.keys;
+        int index = IntOpenHashSet.mix(key) & mask;
+        int existing;
+        while ((existing = keys.getInt(index << 2)) != 0) {
+            if (existing == key) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * 返回旧值，不存在时返回 missingValue
+     */
+    public int put(int key, int value) {
+        if (key == 0) {
+            int old = containsZeroKey ? zeroKeyValue : missingValue;
+            if (!containsZeroKey) {
+                containsZeroKey = true;
+                size++;
+            }
+            zeroKeyValue = value;
+            return old;
+        }
+
+        UnsafeBuffer keys = this.keys;
+        int index = IntOpenHashSet.mix(key) & mask;
+        int existing;
+        while ((existing = keys.getInt(index << 2)) != 0) {
+            if (existing == key) {
+                int old = values.getInt(index << 2);
+                values.putInt(index << 2, value);
+                return old;
+            }
+            index = (index + 1) & mask;
+        }
+
+        keys.putInt(index << 2, key);
+        values.putInt(index << 2, value);
+        if (++size > resizeThreshold) {
+            rehash((mask + 1) << 1);
+        }
+        return missingValue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * 堆外占用的字节数
+     */
+    public long offHeapBytes() {
+        return (long) keys.capacity() + values.capacity();
+    }
+
+    private void rehash(int newCapacity) {
+        if (newCapacity > MAX_CAPACITY) {
+            throw new IllegalStateException("max capacity reached at size=" + size);
+        }
+        UnsafeBuffer oldKeys = keys;
+        UnsafeBuffer oldValues = values;
+        int oldCapacity = mask + 1;
+        allocate(newCapacity);
+        UnsafeBuffer keys = this.keys;
+        UnsafeBuffer values = this.values;
+        for (int i = 0; i < oldCapacity; i++) {
+            int key = oldKeys.getInt(i << 2);
+            if (key != 0) {
+                int index = IntOpenHashSet.mix(key) & mask;
+                while (keys.getInt(index << 2) != 0) {
+                    index = (index + 1) & mask;
+                }
+                keys.putInt(index << 2, key);
+                values.putInt(index << 2, oldValues.getInt(i << 2));
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = OffHeapIntHashSet.allocateSlots(capacity);
+        values = OffHeapIntHashSet.allocateSlots(capacity);
+        mask = capacity - 1;
+        resizeThreshold = Math.min(capacity - 1, (int) (capacity * loadFactor));
+    }
+}
@@ -0,0 +1,135 @@
+package org.openjdk.jmh.custom;
+
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 数据存放在堆外（direct ByteBuffer + UnsafeBuffer）的开放寻址 int 集合，算法与 {@link IntOpenHashSet} 相同。
+ * <p>
+ * 整张表对 GC 来说只是一个 DirectByteBuffer 对象，元素数量再多也不会增加 GC 的扫描量。
+ * 单个 direct buffer 最多 2GB，所以表长上限为 2^28 个槽位；需要配合 -XX:MaxDirectMemorySize 使用。
+ * 旧表在扩容后由 DirectByteBuffer 的 Cleaner 回收。
+ */
+public class OffHeapIntHashSet {
+
+    private static final int MIN_CAPACITY = 8;
+    private static final int MAX_CAPACITY = 1 << 28;
+
+    private final float loadFactor;
+
+    private UnsafeBuffer keys;
+    private int mask;
+    private int resizeThreshold;
+    private int size;
+    private boolean containsZero;
+
+    public OffHeapIntHashSet(int expectedSize) {
+        this(expectedSize, IntOpenHashSet.DEFAULT_LOAD_FACTOR);
+    }
+
+    public OffHeapIntHashSet(int expectedSize, float loadFactor) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must be non-negative: " + expectedSize);
+        }
+        if (!(loadFactor > 0f && loadFactor < 1f)) {
+            throw new IllegalArgumentException("loadFactor must be in (0, 1): " + loadFactor);
+        }
+        this.loadFactor = loadFactor;
+        int capacity = IntOpenHashSet.tableSizeFor(expectedSize, loadFactor);
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalStateException("expectedSize is too large for a single direct buffer: " + expectedSize);
+        }
+        allocate(capacity);
+    }
+
+    static UnsafeBuffer allocateSlots(int capacity) {
+        // allocateDirect 分配的内存已经清零，0 即空槽
+        return new UnsafeBuffer(ByteBuffer.allocateDirect(capacity << 2));
+    }
+
+    public boolean add(int key) {
+        if (key == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+
+        UnsafeBuffer keys = this.keys;
+        int index = IntOpenHashSet.mix(key) & mask;
+        int existing;
+        while ((existing = keys.getInt(index << 2)) != 0) {
+            if (existing == key) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+
+        keys.putInt(index << 2, key);
+        if (++size > resizeThreshold) {
+            rehash((mask + 1) << 1);
+        }
+        return true;
+    }
+
+    public boolean contains(int key) {
+        if (key == 0) {
+            return containsZero;
+        }
+
+        UnsafeBuffer keys = this.keys;
+        int index = IntOpenHashSet.mix(key) & mask;
+        int existing;
+        while ((existing = keys.getInt(index << 2)) != 0) {
+            if (existing == key) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * 堆外占用的字节数
+     */
+    public long offHeapBytes() {
+        return keys.capacity();
+    }
+
+    private void rehash(int newCapacity) {
+        if (newCapacity > MAX_CAPACITY) {
+            throw new IllegalStateException("max capacity reached at size=" + size);
+        }
+        UnsafeBuffer oldKeys = keys;
+        int oldCapacity = mask + 1;
+        allocate(newCapacity);
+        UnsafeBuffer keys = this.keys;
+        for (int i = 0; i < oldCapacity; i++) {
+            int key = oldKeys.getInt(i << 2);
+            if (key != 0) {
+                int index = IntOpenHashSet.mix(key) & mask;
+                while (keys.getInt(index << 2) != 0) {
+                    index = (index + 1) & mask;
+                }
+                keys.putInt(index << 2, key);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = allocateSlots(capacity);
+        mask = capacity - 1;
+        resizeThreshold = Math.min(capacity - 1, (int) (capacity * loadFactor));
+    }
+}
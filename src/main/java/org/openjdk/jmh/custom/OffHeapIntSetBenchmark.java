@@ -0,0 +1,171 @@
+package org.openjdk.jmh.custom;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 堆外集合与堆内集合在超大规模（10^8）下的查询耗时和 GC 开销对比，建议加上 -prof gc 观察 gc.time。
+ * <p>
+ * 每次操作额外分配 garbageBytes 字节的短命对象，模拟业务线程的分配压力，让 young GC 持续发生；
+ * 堆内的 HashSet&lt;Integer&gt; 有 10^8 个 Node/Integer，GC 时需要处理的对象和卡表都远多于堆外版本。
+ * <p>
+ * 所有方法都在同一个 1G 堆里运行，堆外版本额外通过 -XX:MaxDirectMemorySize 放开堆外内存。
+ * 各实现的 size 单独声明：HashSet&lt;Integer&gt; 10^7 个元素约 600M，10^8 放不进 1G 堆；
+ * IntOpenHashSet 10^8 个元素需要 1G 的 int[]，同样只跑到 10^7；堆外版本才跑 10^8。
+ */
+
+@BenchmarkMode({Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgs = {"-Xms1G", "-Xmx1G", "-XX:MaxDirectMemorySize=4G"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(value = 1)
+public class OffHeapIntSetBenchmark {
+
+    private int cursor;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(OffHeapIntSetBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @State(Scope.Benchmark)
+    public static class Data {
+
+        @Param({"0.5"})
+        double hitRatio;
+
+        @Param({"0", "256"})
+        int garbageBytes;
+
+        /**
+         * key 为 scramble(0 .. size-1)，不需要保存全部 key
+         */
+        int[] probes(int size) {
+            return IntSetBenchmarkData.scrambledProbes(size, IntSetBenchmarkData.PROBE_COUNT, hitRatio, 7L);
+        }
+
+        int key(int i) {
+            return IntSetBenchmarkData.scramble(i);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class HashSetState {
+
+        @Param({"1000000", "10000000"})
+        int size;
+
+        HashSet<Integer> set;
+
+        int[] probes;
+
+        @Setup
+        public void setUp(Data data) {
+            probes = data.probes(size);
+            set = new HashSet<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                set.add(data.key(i));
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class IntOpenHashSetState {
+
+        @Param({"1000000", "10000000"})
+        int size;
+
+        IntOpenHashSet set;
+
+        int[] probes;
+
+        @Setup
+        public void setUp(Data data) {
+            probes = data.probes(size);
+            set = new IntOpenHashSet(size);
+            for (int i = 0; i < size; i++) {
+                set.add(data.key(i));
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class OffHeapSetState {
+
+        @Param({"1000000", "10000000", "100000000"})
+        int size;
+
+        OffHeapIntHashSet set;
+
+        int[] probes;
+
+        @Setup
+        public void setUp(Data data) {
+            probes = data.probes(size);
+            set = new OffHeapIntHashSet(size);
+            for (int i = 0; i < size; i++) {
+                set.add(data.key(i));
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class OffHeapMapState {
+
+        @Param({"1000000", "10000000", "100000000"})
+        int size;
+
+        OffHeapInt2IntHashMap map;
+
+        int[] probes;
+
+        @Setup
+        public void setUp(Data data) {
+            probes = data.probes(size);
+            map = new OffHeapInt2IntHashMap(size, -1);
+            for (int i = 0; i < size; i++) {
+                map.put(data.key(i), i);
+            }
+        }
+    }
+
+    private int nextProbe(Data data, int[] probes, Blackhole bh) {
+        if (data.garbageBytes > 0) {
+            bh.consume(new byte[data.garbageBytes]);
+        }
+        return probes[cursor++ & (IntSetBenchmarkData.PROBE_COUNT - 1)];
+    }
+
+    @Benchmark
+    public boolean hashSetContains(Data data, HashSetState state, Blackhole bh) {
+        return state.set.contains(nextProbe(data, state.probes, bh));
+    }
+
+    @Benchmark
+    public boolean intOpenHashSetContains(Data data, IntOpenHashSetState state, Blackhole bh) {
+        return state.set.contains(nextProbe(data, state.probes, bh));
+    }
+
+    @Benchmark
+    public boolean offHeapSetContains(Data data, OffHeapSetState state, Blackhole bh) {
+        return state.set.contains(nextProbe(data, state.probes, bh));
+    }
+
+    @Benchmark
+    public int offHeapMapGet(Data data, OffHeapMapState state, Blackhole bh) {
+        return state.map.get(nextProbe(data, state.probes, bh));
+    }
+
+}
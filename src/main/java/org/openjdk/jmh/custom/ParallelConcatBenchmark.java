@@ -0,0 +1,95 @@
+package org.openjdk.jmh.custom;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 10^4 ~ 10^7 个片段时，ParallelConcatenator 与 stringBuilderWithCapacity 的对比。
+ * <p>
+ * 片段循环取自 {@link StringBuilderVsStringBufferBenchmark.MyState#preparedStrList}，每个 5 个字符，
+ * 10^7 个片段拼出来约 5000 万个字符。poolSize = 1 时可以看出两遍拼接本身的额外开销。
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-Xms4G", "-Xmx4G"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ParallelConcatBenchmark {
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    private int fragments;
+
+    private List<String> fragmentList;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ParallelConcatBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @State(Scope.Benchmark)
+    public static class ConcatPool {
+
+        @Param({"1", "2", "4", "8", "16", "32", "64"})
+        int poolSize;
+
+        @Param({"4096"})
+        int leafSize;
+
+        ParallelConcatenator concatenator;
+
+        @Setup
+        public void setUp() {
+            concatenator = new ParallelConcatenator(poolSize, leafSize);
+        }
+
+        @TearDown
+        public void tearDown() {
+            concatenator.close();
+        }
+    }
+
+    @Setup
+    public void setUp(StringBuilderVsStringBufferBenchmark.MyState state) {
+        List<String> prepared = state.preparedStrList;
+        fragmentList = new ArrayList<>(fragments);
+        for (int i = 0; i < fragments; i++) {
+            fragmentList.add(prepared.get(i % prepared.size()));
+        }
+    }
+
+    @Benchmark
+    public String stringBuilderWithCapacity() {
+        StringBuilder sb = new StringBuilder(fragments * 5);
+        for (int i = 0; i < fragments; i++) {
+            sb.append(fragmentList.get(i));
+        }
+        return sb.toString();
+    }
+
+    @Benchmark
+    public String exactSizeJoin() {
+        return ExactSizeJoiner.join(fragmentList);
+    }
+
+    @Benchmark
+    public String parallelConcat(ConcatPool pool) {
+        return pool.concatenator.concat(fragmentList);
+    }
+
+    @Benchmark
+    public char[] parallelConcatToChars(ConcatPool pool) {
+        return pool.concatenator.concatToChars(fragmentList);
+    }
+}
@@ -0,0 +1,170 @@
+package org.openjdk.jmh.custom;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 在独立、指定大小的 ForkJoinPool 上并行拼接大量片段。
+ * <p>
+ * 分两遍：第一遍把片段列表不断二分到 leafSize 以内，并行统计每段的总长度，得到一棵记录长度的树；
+ * 第二遍沿着这棵树往下传递前缀偏移量，每个叶子把自己的片段拷贝到同一个预先分配好的 char[] 中互不重叠的区间。
+ * 整个过程没有扩容，也不需要合并中间结果。
+ * <p>
+ * fragments 应该支持随机访问（如 ArrayList）。用完后需要调用 {@link #close()} 关闭线程池。
+ */
+public class ParallelConcatenator implements AutoCloseable {
+
+    private final ForkJoinPool pool;
+    private final int leafSize;
+
+    public ParallelConcatenator(int parallelism, int leafSize) {
+        if (leafSize <= 0) {
+            throw new IllegalArgumentException("leafSize must be positive: " + leafSize);
+        }
+        this.pool = new ForkJoinPool(parallelism);
+        this.leafSize = leafSize;
+    }
+
+    public int parallelism() {
+        return pool.getParallelism();
+    }
+
+    public int leafSize() {
+        return leafSize;
+    }
+
+    /**
+     * 返回拼接结果；new String 时会再拷贝一次 char[]
+     */
+    public String concat(List<? extends CharSequence> fragments) {
+        return new String(concatToChars(fragments));
+    }
+
+    /**
+     * 拼接到一个长度恰好等于总长度的 char[] 中
+     */
+    public char[] concatToChars(List<? extends CharSequence> fragments) {
+        Lengths root = pool.invoke(new LengthTask(fragments, 0, fragments.size()));
+        if (root.total > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("joined length is too large: " + root.total);
+        }
+        char[] target = new char[(int) root.total];
+        pool.invoke(new CopyTask(fragments, root, 0, fragments.size(), target, 0));
+        return target;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * [from, to) 内片段的总长度；叶子节点没有子树
+     */
+    private static final class Lengths {
+
+        final long total;
+        final Lengths left;
+        final Lengths right;
+
+        Lengths(long total) {
+            this.total = total;
+            this.left = null;
+            this.right = null;
+        }
+
+        Lengths(Lengths left, Lengths right) {
+            this.total = left.total + right.total;
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    private final class LengthTask extends RecursiveTask<Lengths> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<? extends CharSequence> fragments;
+        private final int from;
+        private final int to;
+
+        LengthTask(List<? extends CharSequence> fragments, int from, int to) {
+            this.fragments = fragments;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Lengths compute() {
+            if (to - from <= leafSize) {
+                long total = 0;
+                for (int i = from; i < to; i++) {
+                    total += fragments.get(i).length();
+                }
+                return new Lengths(total);
+            }
+            int middle = (from + to) >>> 1;
+            LengthTask left = new LengthTask(fragments, from, middle);
+            LengthTask right = new LengthTask(fragments, middle, to);
+            left.fork();
+            Lengths rightLengths = right.compute();
+            return new Lengths(left.join(), rightLengths);
+        }
+    }
+
+    /**
+     * 与 LengthTask 按完全相同的方式二分，因此 lengths 与 [from, to) 一一对应
+     */
+    private static final class CopyTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<? extends CharSequence> fragments;
+        private final Lengths lengths;
+        private final int from;
+        private final int to;
+        private final char[] target;
+        private final int offset;
+
+        CopyTask(List<? extends CharSequence> fragments, Lengths lengths, int from, int to, char[] target, int offset) {
+            this.fragments = fragments;
+            this.lengths = lengths;
+            this.from = from;
+            this.to = to;
+            this.target = target;
+            this.offset = offset;
+        }
+
+        @Override
+        protected void compute() {
+            if (lengths.left == null) {
+                int position = offset;
+                for (int i = from; i < to; i++) {
+                    position = copy(fragments.get(i), target, position);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            CopyTask left = new CopyTask(fragments, lengths.left, from, middle, target, offset);
+            CopyTask right = new CopyTask(fragments, lengths.right, middle, to, target,
+                    offset + (int) lengths.left.total);
+            invokeAll(left, right);
+        }
+
+        private static int copy(CharSequence fragment, char[] target, int position) {
+            int length = fragment.length();
+            if (fragment instanceof String) {
+                ((String) fragment).getChars(0, length, target, position);
+            } else if (fragment instanceof Rope) {
+                ((Rope) fragment).getChars(target, position);
+            } else {
+                for (int i = 0; i < length; i++) {
+                    target[position + i] = fragment.charAt(i);
+                }
+            }
+            return position + length;
+        }
+    }
+}
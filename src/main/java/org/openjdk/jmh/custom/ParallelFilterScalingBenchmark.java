@@ -0,0 +1,123 @@
+package org.openjdk.jmh.custom;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * ParallelIntFilter 在不同线程池大小、不同叶子大小下的扩展性，
+ * 基准为 FilterDataInDifferentWayBenchmark.filterChainWithParallelStream（common pool）。
+ * <p>
+ * 线程池大小超过机器核数时会出现过度订阅，可以用 -p poolSize=1,2,4,... 按实际核数调整。
+ * 直接运行 main 方法会在最后打印相对 poolSize = 1 的加速比。
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-Xms2G", "-Xmx2G"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ParallelFilterScalingBenchmark {
+
+    @Param({"10000000"})
+    private int size;
+
+    private int[] values;
+    private List<Integer> boxedValues;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ParallelFilterScalingBenchmark.class.getSimpleName())
+                .build();
+
+        Collection<RunResult> results = new Runner(opt).run();
+
+        Map<String, Double> singleThreaded = new HashMap<>();
+        double parallelStream = Double.NaN;
+        for (RunResult result : results) {
+            String benchmark = result.getParams().getBenchmark();
+            if (benchmark.endsWith("filterChainWithParallelStream")) {
+                parallelStream = result.getPrimaryResult().getScore();
+            } else if ("1".equals(result.getParams().getParam("poolSize"))) {
+                singleThreaded.put(result.getParams().getParam("leafSize"), result.getPrimaryResult().getScore());
+            }
+        }
+
+        System.out.println();
+        System.out.println("Speedup of parallelIntFilter over poolSize=1 (same leafSize) and over filterChainWithParallelStream:");
+        for (RunResult result : results) {
+            if (!result.getParams().getBenchmark().endsWith("parallelIntFilter")) {
+                continue;
+            }
+            String leafSize = result.getParams().getParam("leafSize");
+            double score = result.getPrimaryResult().getScore();
+            Double baseline = singleThreaded.get(leafSize);
+            System.out.printf("poolSize=%-3s leafSize=%-7s %6.2fx %6.2fx%n",
+                    result.getParams().getParam("poolSize"),
+                    leafSize,
+                    baseline == null ? Double.NaN : baseline / score,
+                    parallelStream / score);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class FilterPool {
+
+        @Param({"1", "2", "4", "8", "16", "32", "64", "96"})
+        int poolSize;
+
+        @Param({"1024", "16384", "262144"})
+        int leafSize;
+
+        ParallelIntFilter filter;
+
+        @Setup
+        public void setUp() {
+            filter = new ParallelIntFilter(poolSize, leafSize, value -> value % 17 != 0
+                    && value % 16 != 0
+                    && value % 15 != 0
+                    && value % 14 != 0
+                    && value % 13 != 0);
+        }
+
+        @TearDown
+        public void tearDown() {
+            filter.close();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        values = IntStream.rangeClosed(0, size).toArray();
+        boxedValues = IntStream.rangeClosed(0, size).boxed().collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public int[] parallelIntFilter(FilterPool pool) {
+        return pool.filter.filter(values);
+    }
+
+    @Benchmark
+    public List<Integer> filterChainWithParallelStream() {
+        return boxedValues.parallelStream()
+                .filter(value -> value % 17 != 0)
+                .filter(value -> value % 16 != 0)
+                .filter(value -> value % 15 != 0)
+                .filter(value -> value % 14 != 0)
+                .filter(value -> value % 13 != 0)
+                .collect(Collectors.toList());
+    }
+
+}
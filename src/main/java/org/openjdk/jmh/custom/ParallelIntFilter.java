@@ -0,0 +1,123 @@
+package org.openjdk.jmh.custom;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntPredicate;
+
+/**
+ * 在独立、指定大小的 ForkJoinPool 上并行过滤 int[]。
+ * <p>
+ * 区间不断二分，直到长度不超过 leafSize；每个叶子把结果写入自己的 int[]，
+ * 最后按原始顺序把所有叶子的结果拼接成一个数组，结果顺序与串行过滤一致。
+ * 不使用 common pool，避免与 JVM 里其他 parallelStream / CompletableFuture 争抢线程。
+ * 用完后需要调用 {@link #close()} 关闭线程池。
+ */
+public class ParallelIntFilter implements AutoCloseable {
+
+    private final ForkJoinPool pool;
+    private final int leafSize;
+    private final IntPredicate predicate;
+
+    public ParallelIntFilter(int parallelism, int leafSize, IntPredicate predicate) {
+        if (leafSize <= 0) {
+            throw new IllegalArgumentException("leafSize must be positive: " + leafSize);
+        }
+        this.pool = new ForkJoinPool(parallelism);
+        this.leafSize = leafSize;
+        this.predicate = predicate;
+    }
+
+    public int parallelism() {
+        return pool.getParallelism();
+    }
+
+    public int leafSize() {
+        return leafSize;
+    }
+
+    public int[] filter(int[] source) {
+        Chunk root = pool.invoke(new FilterTask(source, 0, source.length));
+        int[] result = new int[root.total];
+        root.copyTo(result, 0);
+        return result;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * 叶子节点持有 buffer，内部节点持有左右子树，total 为子树中的元素总数
+     */
+    private static final class Chunk {
+
+        final int[] buffer;
+        final Chunk left;
+        final Chunk right;
+        final int total;
+
+        Chunk(int[] buffer, int count) {
+            this.buffer = buffer;
+            this.left = null;
+            this.right = null;
+            this.total = count;
+        }
+
+        Chunk(Chunk left, Chunk right) {
+            this.buffer = null;
+            this.left = left;
+            this.right = right;
+            this.total = left.total + right.total;
+        }
+
+        int copyTo(int[] target, int offset) {
+            if (buffer != null) {
+                System.arraycopy(buffer, 0, target, offset, total);
+                return offset + total;
+            }
+            return right.copyTo(target, left.copyTo(target, offset));
+        }
+    }
+
+    private final class FilterTask extends RecursiveTask<Chunk> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] source;
+        private final int from;
+        private final int to;
+
+        FilterTask(int[] source, int from, int to) {
+            this.source = source;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Chunk compute() {
+            if (to - from <= leafSize) {
+                return leaf();
+            }
+            int middle = (from + to) >>> 1;
+            FilterTask left = new FilterTask(source, from, middle);
+            FilterTask right = new FilterTask(source, middle, to);
+            left.fork();
+            Chunk rightChunk = right.compute();
+            return new Chunk(left.join(), rightChunk);
+        }
+
+        private Chunk leaf() {
+            IntPredicate predicate = ParallelIntFilter.this.predicate;
+            int[] buffer = new int[to - from];
+            int count = 0;
+            for (int i = from; i < to; i++) {
+                int value = source[i];
+                if (predicate.test(value)) {
+                    buffer[count++] = value;
+                }
+            }
+            return new Chunk(buffer, count);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.openjdk.jmh.custom;
+
+import org.agrona.collections.IntHashSet;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对比 HashSet&lt;Integer&gt;、IntOpenHashSet 以及 Agrona IntHashSet 在不同规模、不同命中率下的 contains 性能
+ */
+
+@BenchmarkMode({Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgs = {"-Xms2G", "-Xmx2G"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(value = 1)
+public class PrimitiveIntSetContainsBenchmark {
+
+    private int cursor;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(PrimitiveIntSetContainsBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @State(Scope.Benchmark)
+    public static class Data extends IntSetBenchmarkData.ContainsData {
+
+        @Param({"1000", "10000", "100000", "1000000", "10000000"})
+        int size;
+
+        @Param({"0.0", "0.5", "1.0"})
+        double hitRatio;
+
+        @Override
+        int size() {
+            return size;
+        }
+
+        @Override
+        double hitRatio() {
+            return hitRatio;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class HashSetState {
+
+        HashSet<Integer> set;
+
+        @Setup
+        public void setUp(Data data) {
+            set = new HashSet<>(data.size * 2);
+            for (int key : data.keys) {
+                set.add(key);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class IntOpenHashSetState {
+
+        @Param({"0.5"})
+        float loadFactor;
+
+        IntOpenHashSet set;
+
+        @Setup
+        public void setUp(Data data) {
+            set = new IntOpenHashSet(data.size, loadFactor);
+            for (int key : data.keys) {
+                set.add(key);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class AgronaIntHashSetState {
+
+        IntHashSet set;
+
+        @Setup
+        public void setUp(Data data) {
+            set = new IntHashSet(data.size * 2);
+            for (int key : data.keys) {
+                set.add(key);
+            }
+        }
+    }
+
+    private int nextProbe(Data data) {
+        return data.probe(cursor++);
+    }
+
+    @Benchmark
+    public boolean hashSetContains(Data data, HashSetState state) {
+        return state.set.contains(nextProbe(data));
+    }
+
+    @Benchmark
+    public boolean intOpenHashSetContains(Data data, IntOpenHashSetState state) {
+        return state.set.contains(nextProbe(data));
+    }
+
+    @Benchmark
+    public boolean agronaIntHashSetContains(Data data, AgronaIntHashSetState state) {
+        return state.set.contains(nextProbe(data));
+    }
+
+}
@@ -0,0 +1,85 @@
+package org.openjdk.jmh.custom;
+
+import org.agrona.MutableDirectBuffer;
+
+/**
+ * 重复组的 flyweight：[uint16 blockLength][uint16 count]，之后是 count 个长度为 blockLength 的条目。
+ * <p>
+ * 组头里记录了条目长度，解码时按组头而不是按 {@link #entryLength()} 前进，
+ * 所以新版本在条目末尾追加字段后，旧的解码器仍然可以正确跳过。
+ * 子类通过 {@link #entryOffset} 读写当前条目的字段。
+ */
+public abstract class RepeatingGroupFlyweight {
+
+    public static final int HEADER_LENGTH = 2 * Short.BYTES;
+
+    public static final int MAX_COUNT = 0xFFFF;
+
+    protected MutableDirectBuffer buffer;
+    protected int entryOffset;
+
+    private MessageFlyweight parent;
+    private int blockLength;
+    private int count;
+    private int index;
+
+    /**
+     * 编码时每个条目的长度
+     */
+    public abstract int entryLength();
+
+    /**
+     * 从 parent 的 limit 处读取组头，之后用 {@link #hasNext()} / {@link #next()} 遍历
+     */
+    public void wrapDecode(MessageFlyweight parent) {
+        MutableDirectBuffer buffer = parent.buffer();
+        int limit = parent.limit();
+        this.parent = parent;
+        this.buffer = buffer;
+        this.blockLength = buffer.getShort(limit, MessageFlyweight.BYTE_ORDER) & 0xFFFF;
+        this.count = buffer.getShort(limit + Short.BYTES, MessageFlyweight.BYTE_ORDER) & 0xFFFF;
+        this.index = -1;
+        parent.limit(limit + HEADER_LENGTH);
+    }
+
+    /**
+     * 在 parent 的 limit 处写入组头，之后对每个条目先调用 {@link #next()} 再写字段
+     */
+    public void wrapEncode(MessageFlyweight parent, int count) {
+        if (count < 0 || count > MAX_COUNT) {
+            throw new IllegalArgumentException("count must be in [0, " + MAX_COUNT + "]: " + count);
+        }
+        MutableDirectBuffer buffer = parent.buffer();
+        int limit = parent.limit();
+        this.parent = parent;
+        this.buffer = buffer;
+        this.blockLength = entryLength();
+        this.count = count;
+        this.index = -1;
+        buffer.putShort(limit, (short) blockLength, MessageFlyweight.BYTE_ORDER);
+        buffer.putShort(limit + Short.BYTES, (short) count, MessageFlyweight.BYTE_ORDER);
+        parent.limit(limit + HEADER_LENGTH);
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public boolean hasNext() {
+        return index + 1 < count;
+    }
+
+    /**
+     * 移动到下一个条目
+     */
+    public RepeatingGroupFlyweight next() {
+        if (index + 1 >= count) {
+            throw new IllegalStateException("no more entries, count=" + count);
+        }
+        int limit = parent.limit();
+        entryOffset = limit;
+        parent.limit(limit + blockLength);
+        index++;
+        return this;
+    }
+}
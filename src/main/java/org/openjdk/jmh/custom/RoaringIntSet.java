@@ -0,0 +1,553 @@
+package org.openjdk.jmh.custom;
+
+import java.util.Arrays;
+
+/**
+ * Roaring 风格的压缩位图 int 集合。
+ * <p>
+ * 32 位整数按高 16 位分块，每块用一个 container 保存低 16 位：
+ * <ul>
+ * <li>ArrayContainer：元素不超过 {@link #ARRAY_MAX_SIZE} 个时，用有序 char[] 保存</li>
+ * <li>BitmapContainer：元素较多时，用 1024 个 long（8KB）表示 65536 个位</li>
+ * <li>RunContainer：连续区间较多时，用 (start, length - 1) 对表示，由 {@link #runOptimize()} 生成</li>
+ * </ul>
+ * 高 16 位和低 16 位均按无符号比较，所以负数排在正数之后。
+ */
+public class RoaringIntSet {
+
+    static final int ARRAY_MAX_SIZE = 4096;
+
+    private char[] keys;
+    private Container[] containers;
+    private int size;
+
+    public RoaringIntSet() {
+        this(new char[4], new Container[4], 0);
+    }
+
+    private RoaringIntSet(char[] keys, Container[] containers, int size) {
+        this.keys = keys;
+        this.containers = containers;
+        this.size = size;
+    }
+
+    public static RoaringIntSet of(int... values) {
+        RoaringIntSet set = new RoaringIntSet();
+        for (int value : values) {
+            set.add(value);
+        }
+        return set;
+    }
+
+    private static char highBits(int x) {
+        return (char) (x >>> 16);
+    }
+
+    private static char lowBits(int x) {
+        return (char) x;
+    }
+
+    public boolean contains(int x) {
+        int index = Arrays.binarySearch(keys, 0, size, highBits(x));
+        return index >= 0 && containers[index].contains(lowBits(x));
+    }
+
+    public boolean add(int x) {
+        char high = highBits(x);
+        int index = Arrays.binarySearch(keys, 0, size, high);
+        if (index >= 0) {
+            Container container = containers[index];
+            int before = container.cardinality();
+            containers[index] = container.add(lowBits(x));
+            return containers[index].cardinality() != before;
+        }
+
+        ArrayContainer container = new ArrayContainer();
+        container.add(lowBits(x));
+        insertAt(-index - 1, high, container);
+        return true;
+    }
+
+    public int cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return (int) Math.min(Integer.MAX_VALUE, cardinality);
+    }
+
+    public RoaringIntSet and(RoaringIntSet other) {
+        char[] resultKeys = new char[Math.max(1, Math.min(size, other.size))];
+        Container[] resultContainers = new Container[resultKeys.length];
+        int resultSize = 0;
+
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container container = containers[i].and(other.containers[j]);
+                if (container.cardinality() > 0) {
+                    resultKeys[resultSize] = keys[i];
+                    resultContainers[resultSize] = container;
+                    resultSize++;
+                }
+                i++;
+                j++;
+            }
+        }
+        return new RoaringIntSet(resultKeys, resultContainers, resultSize);
+    }
+
+    public RoaringIntSet or(RoaringIntSet other) {
+        char[] resultKeys = new char[Math.max(1, size + other.size)];
+        Container[] resultContainers = new Container[resultKeys.length];
+        int resultSize = 0;
+
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                resultKeys[resultSize] = keys[i];
+                resultContainers[resultSize] = containers[i].copy();
+                i++;
+            } else if (i == size || keys[i] > other.keys[j]) {
+                resultKeys[resultSize] = other.keys[j];
+                resultContainers[resultSize] = other.containers[j].copy();
+                j++;
+            } else {
+                resultKeys[resultSize] = keys[i];
+                resultContainers[resultSize] = containers[i].or(other.containers[j]);
+                i++;
+                j++;
+            }
+            resultSize++;
+        }
+        return new RoaringIntSet(resultKeys, resultContainers, resultSize);
+    }
+
+    /**
+     * 把每个 container 转成三种表示中占用空间最小的一种
+     */
+    public void runOptimize() {
+        for (int i = 0; i < size; i++) {
+            containers[i] = containers[i].optimize();
+        }
+    }
+
+    /**
+     * 估算数据部分占用的字节数（不含对象头）
+     */
+    public long sizeInBytes() {
+        long bytes = 2L * keys.length + 4L * containers.length;
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i].sizeInBytes();
+        }
+        return bytes;
+    }
+
+    private void insertAt(int index, char key, Container container) {
+        if (size == keys.length) {
+            int newLength = Math.max(4, keys.length << 1);
+            keys = Arrays.copyOf(keys, newLength);
+            containers = Arrays.copyOf(containers, newLength);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    abstract static class Container {
+
+        abstract boolean contains(char x);
+
+        /**
+         * 可能返回新的 container（例如数组超过阈值时转成位图）
+         */
+        abstract Container add(char x);
+
+        abstract int cardinality();
+
+        abstract BitmapContainer toBitmap();
+
+        abstract Container copy();
+
+        abstract long sizeInBytes();
+
+        Container and(Container other) {
+            if (this instanceof ArrayContainer) {
+                return ((ArrayContainer) this).filter(other);
+            }
+            if (other instanceof ArrayContainer) {
+                return ((ArrayContainer) other).filter(this);
+            }
+            return toBitmap().andInPlace(other.toBitmap()).normalize();
+        }
+
+        Container or(Container other) {
+            if (this instanceof ArrayContainer && other instanceof ArrayContainer) {
+                return ((ArrayContainer) this).merge((ArrayContainer) other);
+            }
+            return toBitmap().orInPlace(other).normalize();
+        }
+
+        /**
+         * 统计连续区间的个数，用于在三种表示之间选择
+         */
+        abstract int numberOfRuns();
+
+        Container optimize() {
+            int cardinality = cardinality();
+            int runs = numberOfRuns();
+            long runBytes = 2L + 4L * runs;
+            long arrayBytes = 2L * cardinality;
+            long bitmapBytes = 8L * BitmapContainer.WORDS;
+            if (runBytes < Math.min(arrayBytes, bitmapBytes)) {
+                return this instanceof RunContainer ? this : RunContainer.fromBitmap(toBitmap(), runs);
+            }
+            if (cardinality <= ARRAY_MAX_SIZE) {
+                return this instanceof ArrayContainer ? this : toBitmap().toArray();
+            }
+            return this instanceof BitmapContainer ? this : toBitmap();
+        }
+    }
+
+    static final class ArrayContainer extends Container {
+
+        char[] content;
+        int cardinality;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] content, int cardinality) {
+            this.content = content;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        boolean contains(char x) {
+            return Arrays.binarySearch(content, 0, cardinality, x) >= 0;
+        }
+
+        @Override
+        Container add(char x) {
+            int index = Arrays.binarySearch(content, 0, cardinality, x);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_MAX_SIZE) {
+                return toBitmap().add(x);
+            }
+            index = -index - 1;
+            if (cardinality == content.length) {
+                content = Arrays.copyOf(content, Math.min(ARRAY_MAX_SIZE, Math.max(4, content.length << 1)));
+            }
+            System.arraycopy(content, index, content, index + 1, cardinality - index);
+            content[index] = x;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.set(content[i]);
+            }
+            return bitmap;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(content, cardinality), cardinality);
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 2L * content.length;
+        }
+
+        @Override
+        int numberOfRuns() {
+            int runs = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (i == 0 || content[i] != content[i - 1] + 1) {
+                    runs++;
+                }
+            }
+            return runs;
+        }
+
+        ArrayContainer filter(Container other) {
+            char[] result = new char[cardinality];
+            int resultSize = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (other.contains(content[i])) {
+                    result[resultSize++] = content[i];
+                }
+            }
+            return new ArrayContainer(result, resultSize);
+        }
+
+        Container merge(ArrayContainer other) {
+            if (cardinality + other.cardinality > ARRAY_MAX_SIZE) {
+                return toBitmap().orInPlace(other).normalize();
+            }
+            char[] result = new char[cardinality + other.cardinality];
+            int resultSize = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality && j < other.cardinality) {
+                char a = content[i];
+                char b = other.content[j];
+                if (a < b) {
+                    result[resultSize++] = a;
+                    i++;
+                } else if (a > b) {
+                    result[resultSize++] = b;
+                    j++;
+                } else {
+                    result[resultSize++] = a;
+                    i++;
+                    j++;
+                }
+            }
+            while (i < cardinality) {
+                result[resultSize++] = content[i++];
+            }
+            while (j < other.cardinality) {
+                result[resultSize++] = other.content[j++];
+            }
+            return new ArrayContainer(result, resultSize);
+        }
+    }
+
+    static final class BitmapContainer extends Container {
+
+        static final int WORDS = 1 << 10;
+
+        final long[] words;
+        int cardinality;
+
+        BitmapContainer() {
+            this(new long[WORDS], 0);
+        }
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        void set(char x) {
+            long before = words[x >>> 6];
+            long after = before | (1L << x);
+            words[x >>> 6] = after;
+            cardinality += (int) ((before ^ after) >>> x);
+        }
+
+        @Override
+        boolean contains(char x) {
+            return (words[x >>> 6] & (1L << x)) != 0;
+        }
+
+        @Override
+        Container add(char x) {
+            set(x);
+            return this;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        Container copy() {
+            return toBitmap();
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 8L * WORDS;
+        }
+
+        @Override
+        int numberOfRuns() {
+            int runs = 0;
+            for (int i = 0; i < WORDS; i++) {
+                long word = words[i];
+                // 一个 run 的起点是"自己为 1 而前一位为 0"的位
+                long previous = (word << 1) | (i == 0 ? 0L : words[i - 1] >>> 63);
+                runs += Long.bitCount(word & ~previous);
+            }
+            return runs;
+        }
+
+        BitmapContainer andInPlace(BitmapContainer other) {
+            int cardinality = 0;
+            for (int i = 0; i < WORDS; i++) {
+                words[i] &= other.words[i];
+                cardinality += Long.bitCount(words[i]);
+            }
+            this.cardinality = cardinality;
+            return this;
+        }
+
+        BitmapContainer orInPlace(Container other) {
+            if (other instanceof ArrayContainer) {
+                ArrayContainer array = (ArrayContainer) other;
+                for (int i = 0; i < array.cardinality; i++) {
+                    set(array.content[i]);
+                }
+                return this;
+            }
+            long[] otherWords = other instanceof BitmapContainer
+                    ? ((BitmapContainer) other).words
+                    : other.toBitmap().words;
+            int cardinality = 0;
+            for (int i = 0; i < WORDS; i++) {
+                words[i] |= otherWords[i];
+                cardinality += Long.bitCount(words[i]);
+            }
+            this.cardinality = cardinality;
+            return this;
+        }
+
+        Container normalize() {
+            return cardinality <= ARRAY_MAX_SIZE ? toArray() : this;
+        }
+
+        ArrayContainer toArray() {
+            char[] content = new char[cardinality];
+            int index = 0;
+            for (int i = 0; i < WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    content[index++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(content, cardinality);
+        }
+    }
+
+    static final class RunContainer extends Container {
+
+        /**
+         * 成对存放 start 和 length - 1，按 start 升序
+         */
+        final char[] runs;
+        final int numberOfRuns;
+        final int cardinality;
+
+        RunContainer(char[] runs, int numberOfRuns) {
+            this.runs = runs;
+            this.numberOfRuns = numberOfRuns;
+            int cardinality = 0;
+            for (int i = 0; i < numberOfRuns; i++) {
+                cardinality += runs[2 * i + 1] + 1;
+            }
+            this.cardinality = cardinality;
+        }
+
+        static RunContainer fromBitmap(BitmapContainer bitmap, int numberOfRuns) {
+            char[] runs = new char[2 * numberOfRuns];
+            int run = 0;
+            int start = -1;
+            for (int x = 0; x <= 0xFFFF; x++) {
+                boolean present = bitmap.contains((char) x);
+                if (present && start < 0) {
+                    start = x;
+                } else if (!present && start >= 0) {
+                    runs[2 * run] = (char) start;
+                    runs[2 * run + 1] = (char) (x - 1 - start);
+                    run++;
+                    start = -1;
+                }
+            }
+            if (start >= 0) {
+                runs[2 * run] = (char) start;
+                runs[2 * run + 1] = (char) (0xFFFF - start);
+            }
+            return new RunContainer(runs, numberOfRuns);
+        }
+
+        @Override
+        boolean contains(char x) {
+            // 找到最后一个 start <= x 的 run
+            int low = 0;
+            int high = numberOfRuns - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (runs[2 * mid] <= x) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            if (high < 0) {
+                return false;
+            }
+            return x - runs[2 * high] <= runs[2 * high + 1];
+        }
+
+        @Override
+        Container add(char x) {
+            if (contains(x)) {
+                return this;
+            }
+            Container container = cardinality < ARRAY_MAX_SIZE ? toBitmap().toArray() : toBitmap();
+            return container.add(x);
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < numberOfRuns; i++) {
+                int start = runs[2 * i];
+                int end = start + runs[2 * i + 1];
+                for (int x = start; x <= end; x++) {
+                    bitmap.set((char) x);
+                }
+            }
+            return bitmap;
+        }
+
+        @Override
+        Container copy() {
+            return this;
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 2L * runs.length;
+        }
+
+        @Override
+        int numberOfRuns() {
+            return numberOfRuns;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package org.openjdk.jmh.custom;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RoaringIntSet 与 ArrayList、HashSet 的查询耗时和内存占用对比。
+ * <p>
+ * contains* 测查询耗时；build* 每次操作完整构建一个集合，配合 -prof gc 时
+ * gc.alloc.rate.norm / size 是构建过程中每个元素分配的字节数，包含扩容和拷贝产生的垃圾，并不是集合最终的大小。
+ * 直接运行 main 方法会自动打开 GCProfiler，最后分别打印构建时的分配量，
+ * 以及 RoaringIntSet 构建完成后由 {@link RoaringIntSet#sizeInBytes()} 给出的实际占用（只算数据，不含对象头）。
+ */
+
+@BenchmarkMode({Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgs = {"-Xms2G", "-Xmx2G"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(value = 1)
+public class RoaringIntSetBenchmark {
+
+    private int cursor;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(RoaringIntSetBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        Collection<RunResult> results = new Runner(opt).run();
+
+        System.out.println();
+        System.out.println("Allocated bytes per element while building (includes growth garbage):");
+        for (RunResult result : results) {
+            String benchmark = result.getParams().getBenchmark();
+            if (!benchmark.contains(".build")) {
+                continue;
+            }
+            Result<?> allocNorm = result.getSecondaryResults().get("·gc.alloc.rate.norm");
+            if (allocNorm == null) {
+                continue;
+            }
+            int size = Integer.parseInt(result.getParams().getParam("size"));
+            System.out.printf("%-50s size=%-9d density=%-5s %8.2f B/element%n",
+                    benchmark.substring(benchmark.lastIndexOf('.') + 1),
+                    size,
+                    result.getParams().getParam("density"),
+                    allocNorm.getScore() / size);
+        }
+
+        System.out.println();
+        System.out.println("RoaringIntSet footprint per element (sizeInBytes):");
+        for (RunResult result : results) {
+            if (!result.getParams().getBenchmark().endsWith(".buildRoaring")) {
+                continue;
+            }
+            Data data = new Data();
+            data.size = Integer.parseInt(result.getParams().getParam("size"));
+            data.density = Double.parseDouble(result.getParams().getParam("density"));
+            data.setUpKeysAndProbes();
+            long bytes = buildRoaring(data.keys).sizeInBytes();
+            System.out.printf("%-50s size=%-9d density=%-5s %8.2f B/element%n",
+                    "roaring", data.size, result.getParams().getParam("density"), bytes / (double) data.size);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Data extends IntSetBenchmarkData.ProbeData {
+
+        @Param({"100000", "1000000", "10000000"})
+        int size;
+
+        /**
+         * size / 取值范围，0.05 时大部分 chunk 为数组，0.5 时为位图，0.99 时为 run
+         */
+        @Param({"0.05", "0.5", "0.99"})
+        double density;
+
+        @Override
+        void generate() {
+            int bound = (int) Math.min(Integer.MAX_VALUE, (long) (size / density));
+            keys = IntSetBenchmarkData.sortedSample(size, bound, 42L);
+
+            // 在整个取值范围内均匀探测，命中率约等于 density
+            Random random = new Random(7L);
+            probes = new int[IntSetBenchmarkData.PROBE_COUNT];
+            for (int i = 0; i < probes.length; i++) {
+                probes[i] = random.nextInt(bound);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ArrayListState {
+
+        List<Integer> list;
+
+        @Setup
+        public void setUp(Data data) {
+            list = buildArrayList(data.keys);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class HashSetState {
+
+        HashSet<Integer> set;
+
+        @Setup
+        public void setUp(Data data) {
+            set = buildHashSet(data.keys);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class RoaringState {
+
+        RoaringIntSet set;
+
+        @Setup
+        public void setUp(Data data) {
+            set = buildRoaring(data.keys);
+        }
+    }
+
+    private static List<Integer> buildArrayList(int[] keys) {
+        List<Integer> list = new ArrayList<>();
+        for (int key : keys) {
+            list.add(key);
+        }
+        return list;
+    }
+
+    private static HashSet<Integer> buildHashSet(int[] keys) {
+        HashSet<Integer> set = new HashSet<>();
+        for (int key : keys) {
+            set.add(key);
+        }
+        return set;
+    }
+
+    private static RoaringIntSet buildRoaring(int[] keys) {
+        RoaringIntSet set = new RoaringIntSet();
+        for (int key : keys) {
+            set.add(key);
+        }
+        set.runOptimize();
+        return set;
+    }
+
+    private int nextProbe(Data data) {
+        return data.probe(cursor++);
+    }
+
+    @Benchmark
+    public boolean arrayListContains(Data data, ArrayListState state) {
+        return state.list.contains(nextProbe(data));
+    }
+
+    @Benchmark
+    public boolean hashSetContains(Data data, HashSetState state) {
+        return state.set.contains(nextProbe(data));
+    }
+
+    @Benchmark
+    public boolean roaringContains(Data data, RoaringState state) {
+        return state.set.contains(nextProbe(data));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Integer> buildArrayList(Data data) {
+        return buildArrayList(data.keys);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public HashSet<Integer> buildHashSet(Data data) {
+        return buildHashSet(data.keys);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public RoaringIntSet buildRoaring(Data data) {
+        return buildRoaring(data.keys);
+    }
+
+}
@@ -0,0 +1,146 @@
+package org.openjdk.jmh.custom;
+
+import java.util.Arrays;
+
+/**
+ * 以追加为主的 rope：append 只记录片段的引用和累计长度，直到 toString() 才一次性拼成 String。
+ * <p>
+ * 片段按追加顺序保存在数组里（相当于一棵只有一层的 rope），prefix[i] 是前 i 个片段的总长度，
+ * charAt / subSequence 通过在 prefix 上二分定位片段。toString() 的结果会被缓存，直到下一次 append。
+ * 追加的片段按引用保存，调用方不应再修改可变的 CharSequence（如 StringBuilder）。
+ * 不是线程安全的。
+ */
+public final class Rope implements CharSequence {
+
+    private CharSequence[] fragments;
+    private long[] prefix;
+    private int count;
+    private long length;
+
+    private String flattened;
+
+    public Rope() {
+        this(16);
+    }
+
+    public Rope(int expectedFragments) {
+        int capacity = Math.max(4, expectedFragments);
+        this.fragments = new CharSequence[capacity];
+        this.prefix = new long[capacity + 1];
+    }
+
+    public Rope append(CharSequence fragment) {
+        int length = fragment.length();
+        if (length == 0) {
+            return this;
+        }
+        if (count == fragments.length) {
+            fragments = Arrays.copyOf(fragments, count << 1);
+            prefix = Arrays.copyOf(prefix, (count << 1) + 1);
+        }
+        fragments[count++] = fragment;
+        this.length += length;
+        prefix[count] = this.length;
+        flattened = null;
+        return this;
+    }
+
+    /**
+     * 片段个数
+     */
+    public int fragments() {
+        return count;
+    }
+
+    @Override
+    public int length() {
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalStateException("rope is longer than Integer.MAX_VALUE: " + length);
+        }
+        return (int) length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+        }
+        int fragment = fragmentAt(index);
+        return fragments[fragment].charAt((int) (index - prefix[fragment]));
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + length);
+        }
+        Rope result = new Rope();
+        if (start == end) {
+            return result;
+        }
+        int first = fragmentAt(start);
+        int last = fragmentAt(end - 1);
+        for (int i = first; i <= last; i++) {
+            int from = i == first ? (int) (start - prefix[i]) : 0;
+            int to = i == last ? (int) (end - prefix[i]) : fragments[i].length();
+            result.append(from == 0 && to == fragments[i].length()
+                    ? fragments[i] : fragments[i].subSequence(from, to));
+        }
+        return result;
+    }
+
+    /**
+     * 把全部内容拷贝到 target 的 position 处，target 剩余空间至少为 length()
+     */
+    public void getChars(char[] target, int position) {
+        if (flattened != null) {
+            flattened.getChars(0, flattened.length(), target, position);
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            CharSequence fragment = fragments[i];
+            int length = fragment.length();
+            if (fragment instanceof String) {
+                ((String) fragment).getChars(0, length, target, position);
+            } else if (fragment instanceof Rope) {
+                ((Rope) fragment).getChars(target, position);
+            } else {
+                for (int j = 0; j < length; j++) {
+                    target[position + j] = fragment.charAt(j);
+                }
+            }
+            position += length;
+        }
+    }
+
+    @Override
+    public String toString() {
+        String flattened = this.flattened;
+        if (flattened == null) {
+            StringBuilder sb = new StringBuilder(length());
+            for (int i = 0; i < count; i++) {
+                sb.append(fragments[i]);
+            }
+            flattened = sb.toString();
+            this.flattened = flattened;
+        }
+        return flattened;
+    }
+
+    /**
+     * 包含 index 的片段下标：满足 prefix[i] &lt;= index &lt; prefix[i + 1] 的 i
+     */
+    private int fragmentAt(long index) {
+        int low = 0;
+        int high = count - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (prefix[mid] <= index) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+}
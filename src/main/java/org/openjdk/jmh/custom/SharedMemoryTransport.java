@@ -0,0 +1,120 @@
+package org.openjdk.jmh.custom;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.ManyToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.OneToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBufferDescriptor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 基于共享内存文件的单向消息通道：把文件映射进内存，在上面建一个 Agrona 的 ring buffer，
+ * 同一台机器上的多个 JVM 映射同一个文件即可互相传递消息，不经过内核网络栈。
+ * <p>
+ * 文件默认放在 /dev/shm（tmpfs，不会落盘），不存在时退化为系统临时目录。
+ * {@link RingType#ONE_TO_ONE} 只允许一个生产者，{@link RingType#MANY_TO_ONE} 允许多个生产者（可以在不同进程里），
+ * 两者都只能有一个消费者。ring buffer 的状态全部保存在文件里，先 create 再由其他进程 open。
+ * close 会立即 unmap，之后不能再通过 {@link #ringBuffer()} 收发消息；文件由创建者负责删除。
+ */
+public class SharedMemoryTransport implements AutoCloseable {
+
+    public static final int MESSAGE_TYPE = 1;
+
+    public enum RingType {
+        ONE_TO_ONE,
+        MANY_TO_ONE
+    }
+
+    private final File file;
+    private final RingBuffer ringBuffer;
+
+    /**
+     * 保持映射可达，close 时 unmap
+     */
+    private final MappedByteBuffer mapping;
+
+    private SharedMemoryTransport(File file, MappedByteBuffer mapping, RingType ringType) {
+        this.file = file;
+        this.mapping = mapping;
+        UnsafeBuffer buffer = new UnsafeBuffer(mapping);
+        this.ringBuffer = ringType == RingType.ONE_TO_ONE
+                ? new OneToOneRingBuffer(buffer)
+                : new ManyToOneRingBuffer(buffer);
+    }
+
+    public static File defaultDirectory() {
+        File shm = new File("/dev/shm");
+        return shm.isDirectory() && shm.canWrite() ? shm : new File(System.getProperty("java.io.tmpdir"));
+    }
+
+    /**
+     * 新建（或覆盖）file 并初始化一个容量为 capacity 的 ring buffer，capacity 必须是 2 的幂
+     */
+    public static SharedMemoryTransport create(File file, int capacity, RingType ringType) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        if (file.exists() && !file.delete()) {
+            throw new IllegalStateException("failed to delete existing file: " + file);
+        }
+        return new SharedMemoryTransport(file, map(file, capacity + RingBufferDescriptor.TRAILER_LENGTH), ringType);
+    }
+
+    /**
+     * 打开另一个进程 create 好的文件
+     */
+    public static SharedMemoryTransport open(File file, RingType ringType) {
+        if (!file.isFile()) {
+            throw new IllegalArgumentException("no such ring buffer file: " + file);
+        }
+        return new SharedMemoryTransport(file, map(file, file.length()), ringType);
+    }
+
+    /**
+     * 写入一条消息；ring buffer 已满时返回 false
+     */
+    public boolean offer(DirectBuffer source, int offset, int length) {
+        return ringBuffer.write(MESSAGE_TYPE, source, offset, length);
+    }
+
+    /**
+     * 读取最多 limit 条消息，返回实际读到的条数
+     */
+    public int poll(MessageHandler handler, int limit) {
+        return ringBuffer.read(handler, limit);
+    }
+
+    public RingBuffer ringBuffer() {
+        return ringBuffer;
+    }
+
+    public File file() {
+        return file;
+    }
+
+    public int maxMessageLength() {
+        return ringBuffer.maxMsgLength();
+    }
+
+    @Override
+    public void close() {
+        MappedBuffers.unmap(mapping);
+    }
+
+    private static MappedByteBuffer map(File file, long length) {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(length);
+            return randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to map ring buffer file: " + file, e);
+        }
+    }
+}
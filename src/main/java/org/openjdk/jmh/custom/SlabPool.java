@@ -0,0 +1,319 @@
+package org.openjdk.jmh.custom;
+
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 按大小分级的堆外内存池：每个级别从一整块预先分配的 direct ByteBuffer（region）中切出固定大小的槽位（slab），
+ * 通过 UnsafeBuffer 访问，避免每次请求都 ByteBuffer.allocateDirect（Bits.reserveMemory 的争用、以及达到上限时的 System.gc()）。
+ * <p>
+ * 级别为 minSlabBytes 到 maxSlabBytes 之间的 2 的幂。每个线程对每个级别有自己的缓存：
+ * <ul>
+ * <li>本线程取出、本线程归还：直接进出本地缓存，没有任何同步</li>
+ * <li>在其他线程归还：用 CAS 压入取出它的那个线程的 inbox，inbox 只会被所有者整体取走（getAndSet(null)），
+ * 不存在 ABA 问题</li>
+ * <li>本地缓存超过 {@link #LOCAL_CACHE_LIMIT} 时，把一半交给全局的 depot；本地为空时先收 inbox，再从 depot 拿一批，
+ * 最后才切新的 region。depot 按批访问，用锁保护</li>
+ * <li>新切的 region 按大约 {@link #BATCH_BYTES} 字节分成若干批，切的线程只拿走第一批，其余放进 depot，
+ * 避免一个线程独占整个 region（例如 4MB 的 region 只切 64 个 64KB 的 slab 时）</li>
+ * </ul>
+ * 超过 maxSlabBytes 的请求，或者池的总容量达到 maxPooledBytes 之后，退化为单独 allocateDirect，归还时直接丢弃。
+ * 槽位内容不会清零。线程退出时留在它本地缓存和 inbox 里的 slab 不会再被复用。
+ */
+public class SlabPool {
+
+    static final int LOCAL_CACHE_LIMIT = 256;
+
+    /**
+     * 从 depot 或新 region 一次拿走的字节数，slab 较大时一批只有几个，较小时最多 LOCAL_CACHE_LIMIT / 2 个
+     */
+    static final int BATCH_BYTES = 256 * 1024;
+
+    private final int minShift;
+    private final int maxShift;
+    private final int regionBytes;
+    private final long maxPooledBytes;
+
+    private final SizeClass[] sizeClasses;
+    private final ThreadLocal<ThreadCache[]> caches;
+
+    private final List<ByteBuffer> regions = new ArrayList<>();
+    private long pooledBytes;
+
+    /**
+     * minSlabBytes、maxSlabBytes、regionBytes 都必须是 2 的幂，且 regionBytes &gt;= maxSlabBytes
+     */
+    public SlabPool(int minSlabBytes, int maxSlabBytes, int regionBytes, long maxPooledBytes) {
+        if (Integer.bitCount(minSlabBytes) != 1 || Integer.bitCount(maxSlabBytes) != 1
+                || Integer.bitCount(regionBytes) != 1) {
+            throw new IllegalArgumentException("slab and region sizes must be powers of two: "
+                    + minSlabBytes + ", " + maxSlabBytes + ", " + regionBytes);
+        }
+        if (minSlabBytes > maxSlabBytes || maxSlabBytes > regionBytes) {
+            throw new IllegalArgumentException("expected minSlabBytes <= maxSlabBytes <= regionBytes: "
+                    + minSlabBytes + ", " + maxSlabBytes + ", " + regionBytes);
+        }
+        this.minShift = Integer.numberOfTrailingZeros(minSlabBytes);
+        this.maxShift = Integer.numberOfTrailingZeros(maxSlabBytes);
+        this.regionBytes = regionBytes;
+        this.maxPooledBytes = maxPooledBytes;
+        this.sizeClasses = new SizeClass[maxShift - minShift + 1];
+        for (int i = 0; i < sizeClasses.length; i++) {
+            sizeClasses[i] = new SizeClass(1 << (minShift + i));
+        }
+        this.caches = ThreadLocal.withInitial(() -> {
+            ThreadCache[] caches = new ThreadCache[sizeClasses.length];
+            for (int i = 0; i < caches.length; i++) {
+                caches[i] = new ThreadCache(sizeClasses[i]);
+            }
+            return caches;
+        });
+    }
+
+    /**
+     * 取出一个至少 size 字节的 slab，{@link Slab#buffer()} 的长度恰好为 size
+     */
+    public Slab acquire(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+        int sizeClass = sizeClassFor(size);
+        if (sizeClass < 0) {
+            return unpooled(size);
+        }
+        Slab slab = caches.get()[sizeClass].pop();
+        if (slab == null) {
+            return unpooled(size);
+        }
+        slab.buffer.wrap(slab.address, size);
+        return slab;
+    }
+
+    /**
+     * 归还 slab，可以在任意线程调用；归还之后不能再使用它的 buffer
+     */
+    public void release(Slab slab) {
+        ThreadCache owner = slab.owner;
+        if (owner == null) {
+            return;
+        }
+        if (owner.thread == Thread.currentThread()) {
+            owner.push(slab);
+        } else {
+            owner.pushRemote(slab);
+        }
+    }
+
+    /**
+     * 已经切分出去的 region 总字节数
+     */
+    public synchronized long pooledBytes() {
+        return pooledBytes;
+    }
+
+    int sizeClassFor(int size) {
+        int shift = size <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(size - 1);
+        if (shift > maxShift) {
+            return -1;
+        }
+        return Math.max(0, shift - minShift);
+    }
+
+    private Slab unpooled(int size) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(size);
+        Slab slab = new Slab(new UnsafeBuffer(buffer).addressOffset(), size);
+        slab.region = buffer;
+        slab.buffer.wrap(buffer);
+        return slab;
+    }
+
+    /**
+     * 切一块新的 region，返回第一批槽位组成的链表，其余按批放进 depot；容量达到上限时返回 null
+     */
+    private synchronized Slab carve(SizeClass sizeClass) {
+        if (pooledBytes + regionBytes > maxPooledBytes) {
+            return null;
+        }
+        ByteBuffer region = ByteBuffer.allocateDirect(regionBytes);
+        regions.add(region);
+        pooledBytes += regionBytes;
+
+        long address = new UnsafeBuffer(region).addressOffset();
+        int slabBytes = sizeClass.slabBytes;
+        int batchBytes = sizeClass.batchSlabs * slabBytes;
+        Slab first = null;
+        for (int start = 0; start < regionBytes; start += batchBytes) {
+            int end = Math.min(regionBytes, start + batchBytes);
+            Slab head = null;
+            for (int offset = end - slabBytes; offset >= start; offset -= slabBytes) {
+                Slab slab = new Slab(address + offset, slabBytes);
+                slab.region = region;
+                slab.next = head;
+                head = slab;
+            }
+            if (first == null) {
+                first = head;
+            } else {
+                sizeClass.deposit(head);
+            }
+        }
+        return first;
+    }
+
+    /**
+     * 一个 slab；对象本身随槽位一起复用，acquire / release 不产生垃圾
+     */
+    public static final class Slab {
+
+        private final long address;
+        private final int capacity;
+        private final UnsafeBuffer buffer = new UnsafeBuffer(0, 0);
+
+        /**
+         * 保持 region 可达，防止被 GC 回收
+         */
+        private ByteBuffer region;
+
+        private ThreadCache owner;
+        private Slab next;
+
+        private Slab(long address, int capacity) {
+            this.address = address;
+            this.capacity = capacity;
+        }
+
+        public UnsafeBuffer buffer() {
+            return buffer;
+        }
+
+        /**
+         * 槽位的实际大小
+         */
+        public int capacity() {
+            return capacity;
+        }
+    }
+
+    private final class SizeClass {
+
+        final int slabBytes;
+
+        /**
+         * 切 region 时每批的 slab 个数
+         */
+        final int batchSlabs;
+
+        /**
+         * 全局 depot：若干条长度不超过 LOCAL_CACHE_LIMIT / 2 的链表
+         */
+        private final List<Slab> depot = new ArrayList<>();
+
+        SizeClass(int slabBytes) {
+            this.slabBytes = slabBytes;
+            this.batchSlabs = Math.max(1, Math.min(LOCAL_CACHE_LIMIT / 2, BATCH_BYTES / slabBytes));
+        }
+
+        synchronized void deposit(Slab batch) {
+            depot.add(batch);
+        }
+
+        synchronized Slab withdraw() {
+            return depot.isEmpty() ? null : depot.remove(depot.size() - 1);
+        }
+    }
+
+    private final class ThreadCache {
+
+        final Thread thread = Thread.currentThread();
+        final SizeClass sizeClass;
+
+        private final AtomicReference<Slab> inbox = new AtomicReference<>();
+        private Slab local;
+        private int localCount;
+
+        ThreadCache(SizeClass sizeClass) {
+            this.sizeClass = sizeClass;
+        }
+
+        Slab pop() {
+            if (local == null && !refill()) {
+                return null;
+            }
+            Slab slab = local;
+            local = slab.next;
+            localCount--;
+            slab.next = null;
+            slab.owner = this;
+            return slab;
+        }
+
+        void push(Slab slab) {
+            slab.next = local;
+            local = slab;
+            if (++localCount > LOCAL_CACHE_LIMIT) {
+                spill();
+            }
+        }
+
+        void pushRemote(Slab slab) {
+            Slab head;
+            do {
+                head = inbox.get();
+                slab.next = head;
+            } while (!inbox.compareAndSet(head, slab));
+        }
+
+        private boolean refill() {
+            Slab batch = inbox.getAndSet(null);
+            if (batch == null) {
+                batch = sizeClass.withdraw();
+            }
+            if (batch == null) {
+                batch = carve(sizeClass);
+            }
+            if (batch == null) {
+                return false;
+            }
+            int count = 0;
+            for (Slab slab = batch; slab != null; slab = slab.next) {
+                count++;
+            }
+            local = batch;
+            localCount = count;
+            if (count > LOCAL_CACHE_LIMIT) {
+                spill();
+            }
+            return true;
+        }
+
+        /**
+         * 把一半的本地缓存交给 depot
+         */
+        private void spill() {
+            int keep = LOCAL_CACHE_LIMIT / 2;
+            Slab tail = local;
+            for (int i = 1; i < keep; i++) {
+                tail = tail.next;
+            }
+            Slab batch = tail.next;
+            tail.next = null;
+            localCount = keep;
+
+            // depot 中每批不超过 LOCAL_CACHE_LIMIT / 2 个
+            while (batch != null) {
+                Slab head = batch;
+                Slab last = head;
+                for (int i = 1; i < keep && last.next != null; i++) {
+                    last = last.next;
+                }
+                batch = last.next;
+                last.next = null;
+                sizeClass.deposit(head);
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.openjdk.jmh.custom;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 多线程下申请 / 释放堆外内存：ByteBuffer.allocateDirect 与 SlabPool 的对比。
+ * <p>
+ * slabPoolLocal 在同一个线程里申请并释放；slabPoolCrossThread 把申请到的 slab 放进共享的邮箱，
+ * 再释放邮箱里原来的那个（多数是别的线程申请的），用来测跨线程归还的开销。
+ * allocateDirect 依赖 GC 回收，MaxDirectMemorySize 限制得比较小，更容易触发 Bits.reserveMemory 里的 System.gc()。
+ * 池的上限为 192MB：每个线程每次只从 region 里拿 SlabPool.BATCH_BYTES（64KB 的 slab 为 4 个），
+ * 64 个线程也只占用几十 MB，不会因为达到上限而退化为 allocateDirect。
+ * <p>
+ * 直接运行 main 方法会依次用 1、2、4 ... 64 个线程运行并打印吞吐量；也可以用 -t 指定线程数。
+ */
+
+@BenchmarkMode({Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms1G", "-Xmx1G", "-XX:MaxDirectMemorySize=256m"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(value = 1)
+public class SlabPoolBenchmark {
+
+    private static final int[] THREADS = {1, 2, 4, 8, 16, 32, 64};
+
+    private static final int MAILBOX_SIZE = 64;
+
+    public static void main(String[] args) throws RunnerException {
+        List<RunResult> results = new ArrayList<>();
+        for (int threads : THREADS) {
+            Options opt = new OptionsBuilder()
+                    .include(SlabPoolBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build();
+            results.addAll(new Runner(opt).run());
+        }
+
+        System.out.println();
+        System.out.println("Throughput (ops/us):");
+        for (RunResult result : results) {
+            String benchmark = result.getParams().getBenchmark();
+            System.out.printf("%-20s threads=%-3d size=%-6s %10.3f ops/us%n",
+                    benchmark.substring(benchmark.lastIndexOf('.') + 1),
+                    result.getParams().getThreads(),
+                    result.getParams().getParam("size"),
+                    result.getPrimaryResult().getScore());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+
+        @Param({"256", "4096", "65536"})
+        int size;
+
+        SlabPool pool;
+
+        AtomicReferenceArray<SlabPool.Slab> mailbox;
+
+        @Setup
+        public void setUp() {
+            pool = new SlabPool(64, 64 * 1024, 4 * 1024 * 1024, 192L * 1024 * 1024);
+            mailbox = new AtomicReferenceArray<>(MAILBOX_SIZE);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        int next;
+
+        @Setup
+        public void setUp(ThreadParams threadParams) {
+            next = threadParams.getThreadIndex();
+        }
+    }
+
+    @Benchmark
+    public ByteBuffer allocateDirect(Shared shared) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(shared.size);
+        buffer.putLong(0, 1L);
+        return buffer;
+    }
+
+    @Benchmark
+    public long slabPoolLocal(Shared shared) {
+        SlabPool.Slab slab = shared.pool.acquire(shared.size);
+        slab.buffer().putLong(0, 1L);
+        long value = slab.buffer().getLong(0);
+        shared.pool.release(slab);
+        return value;
+    }
+
+    @Benchmark
+    public long slabPoolCrossThread(Shared shared, Cursor cursor) {
+        SlabPool.Slab slab = shared.pool.acquire(shared.size);
+        slab.buffer().putLong(0, 1L);
+        SlabPool.Slab previous = shared.mailbox.getAndSet(cursor.next++ & (MAILBOX_SIZE - 1), slab);
+        if (previous == null) {
+            return 0;
+        }
+        long value = previous.buffer().getLong(0);
+        shared.pool.release(previous);
+        return value;
+    }
+}
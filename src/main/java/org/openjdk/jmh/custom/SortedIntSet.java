@@ -0,0 +1,129 @@
+package org.openjdk.jmh.custom;
+
+import java.util.Arrays;
+
+/**
+ * 只读的有序 int 集合，构建一次之后只做 contains 查询。
+ * <p>
+ * 支持三种内存布局：
+ * <ul>
+ * <li>{@link Layout#BINARY_SEARCH}：有序数组 + {@link Arrays#binarySearch(int[], int)}</li>
+ * <li>{@link Layout#BRANCHLESS}：有序数组 + 无分支二分查找，循环次数只与长度有关，比较结果通过条件传送（cmov）累加</li>
+ * <li>{@link Layout#EYTZINGER}：按 BFS（堆）顺序存放，节点 k 的子节点为 2k、2k+1，
+ * 靠近根部的几层总是挤在同几条缓存行里，每一层的下一次访问地址只依赖当前比较结果</li>
+ * </ul>
+ */
+public final class SortedIntSet {
+
+    public enum Layout {
+        BINARY_SEARCH,
+        BRANCHLESS,
+        EYTZINGER
+    }
+
+    private final Layout layout;
+
+    /**
+     * BINARY_SEARCH / BRANCHLESS 时为升序数组；EYTZINGER 时下标 0 不使用，元素存放在 [1, size]
+     */
+    private final int[] data;
+    private final int size;
+
+    private SortedIntSet(Layout layout, int[] data, int size) {
+        this.layout = layout;
+        this.data = data;
+        this.size = size;
+    }
+
+    /**
+     * 基于 values 构建集合，values 本身不会被修改，重复值会被去掉
+     */
+    public static SortedIntSet of(int[] values, Layout layout) {
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int size = dedupe(sorted);
+
+        switch (layout) {
+            case BINARY_SEARCH:
+            case BRANCHLESS:
+                return new SortedIntSet(layout, Arrays.copyOf(sorted, size), size);
+            case EYTZINGER:
+                int[] eytzinger = new int[size + 1];
+                toEytzinger(sorted, eytzinger, 0, 1, size);
+                return new SortedIntSet(layout, eytzinger, size);
+            default:
+                throw new IllegalArgumentException("unknown layout: " + layout);
+        }
+    }
+
+    public boolean contains(int key) {
+        switch (layout) {
+            case BINARY_SEARCH:
+                return Arrays.binarySearch(data, key) >= 0;
+            case BRANCHLESS:
+                return branchlessContains(key);
+            default:
+                return eytzingerContains(key);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Layout layout() {
+        return layout;
+    }
+
+    private boolean branchlessContains(int key) {
+        int[] data = this.data;
+        int n = size;
+        if (n == 0) {
+            return false;
+        }
+        int base = 0;
+        while (n > 1) {
+            int half = n >>> 1;
+            base = data[base + half] <= key ? base + half : base;
+            n -= half;
+        }
+        return data[base] == key;
+    }
+
+    private boolean eytzingerContains(int key) {
+        int[] data = this.data;
+        int n = size;
+        int k = 1;
+        while (k <= n) {
+            k = (k << 1) + (data[k] < key ? 1 : 0);
+        }
+        // 去掉最后一段"向右"的路径，得到第一个 >= key 的节点
+        k >>>= Integer.numberOfTrailingZeros(~k) + 1;
+        return k != 0 && data[k] == key;
+    }
+
+    /**
+     * 中序遍历完全二叉树，把有序数组依次填入，返回下一个待填的下标
+     */
+    private static int toEytzinger(int[] sorted, int[] target, int i, int k, int n) {
+        if (k <= n) {
+            i = toEytzinger(sorted, target, i, k << 1, n);
+            target[k] = sorted[i++];
+            i = toEytzinger(sorted, target, i, (k << 1) + 1, n);
+        }
+        return i;
+    }
+
+    private static int dedupe(int[] sorted) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int size = 1;
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] != sorted[size - 1]) {
+                sorted[size++] = sorted[i];
+            }
+        }
+        return size;
+    }
+}
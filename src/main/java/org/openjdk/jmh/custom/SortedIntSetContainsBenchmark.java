@@ -0,0 +1,118 @@
+package org.openjdk.jmh.custom;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 随机探测序列下，SortedIntSet 三种布局与 ArrayList、HashSet 的 contains 对比
+ */
+
+@BenchmarkMode({Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgs = {"-Xms1G", "-Xmx1G"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(value = 1)
+public class SortedIntSetContainsBenchmark {
+
+    private int cursor;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(SortedIntSetContainsBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @State(Scope.Benchmark)
+    public static class Data extends IntSetBenchmarkData.ContainsData {
+
+        @Param({"1000", "10000", "100000", "1000000"})
+        int size;
+
+        @Param({"0.5"})
+        double hitRatio;
+
+        @Override
+        int size() {
+            return size;
+        }
+
+        @Override
+        double hitRatio() {
+            return hitRatio;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ArrayListState {
+
+        List<Integer> list;
+
+        @Setup
+        public void setUp(Data data) {
+            list = new ArrayList<>(data.size);
+            for (int key : data.keys) {
+                list.add(key);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class HashSetState {
+
+        HashSet<Integer> set;
+
+        @Setup
+        public void setUp(Data data) {
+            set = new HashSet<>(data.size * 2);
+            for (int key : data.keys) {
+                set.add(key);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SortedIntSetState {
+
+        @Param({"BINARY_SEARCH", "BRANCHLESS", "EYTZINGER"})
+        SortedIntSet.Layout layout;
+
+        SortedIntSet set;
+
+        @Setup
+        public void setUp(Data data) {
+            set = SortedIntSet.of(data.keys, layout);
+        }
+    }
+
+    private int nextProbe(Data data) {
+        return data.probe(cursor++);
+    }
+
+    @Benchmark
+    public boolean arrayListContains(Data data, ArrayListState state) {
+        return state.list.contains(nextProbe(data));
+    }
+
+    @Benchmark
+    public boolean hashSetContains(Data data, HashSetState state) {
+        return state.set.contains(nextProbe(data));
+    }
+
+    @Benchmark
+    public boolean sortedIntSetContains(Data data, SortedIntSetState state) {
+        return state.set.contains(nextProbe(data));
+    }
+
+}
@@ -0,0 +1,177 @@
+package org.openjdk.jmh.custom;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+
+/**
+ * 流式过滤（内存占用为 O(chunkSize)）与先把数据全部读进内存再过滤的对比，建议加上 -prof gc 观察分配速率。
+ * <p>
+ * 数据源为按顺序递增的整数，与 FilterDataInDifferentWayBenchmark.setUp 中的数据一致，只是不会一次性生成。
+ * 流式版本不依赖堆大小，跑到 10^9 个元素；物化版本每次操作要分配 elements * 4 字节的 int[]，
+ * 在 1G 的堆里只跑 10^8（400MB）。
+ * channelStreamingFilter 从临时文件读取，文件只生成一次，大小由 fileElements 决定；
+ * channel 和读缓冲区在 Setup 中创建，每次操作只把读取位置移回开头，不会把打开文件和分配缓冲区算进结果。
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms1G", "-Xmx1G"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class StreamingFilterBenchmark {
+
+    private static final IntPredicate PREDICATE = value -> value % 17 != 0
+            && value % 16 != 0
+            && value % 15 != 0
+            && value % 14 != 0
+            && value % 13 != 0;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(StreamingFilterBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    /**
+     * 下游只统计个数和累加和，避免结果被 JIT 消除
+     */
+    static final class CountingSink implements IntSink {
+
+        long count;
+        long sum;
+
+        @Override
+        public void accept(int[] values, int count) {
+            this.count += count;
+            for (int i = 0; i < count; i++) {
+                sum += values[i];
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Generated {
+
+        @Param({"100000000", "1000000000"})
+        int elements;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Materialized {
+
+        @Param({"100000000"})
+        int elements;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Streaming {
+
+        @Param({"4096", "65536"})
+        int chunkSize;
+
+        StreamingIntFilter filter;
+
+        @Setup
+        public void setUp() {
+            filter = new StreamingIntFilter(chunkSize, PREDICATE);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class FileSource {
+
+        @Param({"10000000"})
+        int fileElements;
+
+        File file;
+        RandomAccessFile randomAccessFile;
+        FileChannel channel;
+
+        /**
+         * 读缓冲区，大小与 Streaming.chunkSize 个 int 相同
+         */
+        ByteBuffer bytes;
+
+        @Setup
+        public void setUp(Streaming streaming) throws IOException {
+            file = File.createTempFile("streamingfilter", "ints");
+            file.deleteOnExit();
+            try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+                 FileChannel channel = randomAccessFile.getChannel()) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+                for (int i = 0; i < fileElements; i++) {
+                    if (!buffer.hasRemaining()) {
+                        buffer.flip();
+                        while (buffer.hasRemaining()) {
+                            channel.write(buffer);
+                        }
+                        buffer.clear();
+                    }
+                    buffer.putInt(i);
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            randomAccessFile = new RandomAccessFile(file, "r");
+            channel = randomAccessFile.getChannel();
+            bytes = ByteBuffer.allocateDirect(streaming.chunkSize * Integer.BYTES);
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            channel.close();
+            randomAccessFile.close();
+            file.delete();
+        }
+    }
+
+    @Benchmark
+    public long streamingFilter(Generated generated, Streaming streaming) throws IOException {
+        int[] next = {0};
+        CountingSink sink = new CountingSink();
+        streaming.filter.run(IntChunkSource.fromSupplier(() -> next[0]++, generated.elements), sink);
+        return sink.sum;
+    }
+
+    @Benchmark
+    public long materializedForLoop(Materialized materialized) {
+        int elements = materialized.elements;
+        int[] values = new int[elements];
+        for (int i = 0; i < elements; i++) {
+            values[i] = i;
+        }
+
+        long sum = 0;
+        for (int value : values) {
+            if (PREDICATE.test(value)) {
+                sum += value;
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long channelStreamingFilter(FileSource source, Streaming streaming) throws IOException {
+        CountingSink sink = new CountingSink();
+        FileChannel channel = source.channel;
+        channel.position(0);
+        streaming.filter.run(IntChunkSource.fromChannel(channel, source.bytes), sink);
+        return sink.sum;
+    }
+
+}
@@ -0,0 +1,51 @@
+package org.openjdk.jmh.custom;
+
+import java.io.IOException;
+import java.util.function.IntPredicate;
+
+/**
+ * 面向无界数据流的过滤：每次从数据源拉取一块，过滤后推给下游，内存占用只与块大小有关。
+ * <p>
+ * 输入和输出各复用一个 int[chunkSize]，运行过程中不分配对象；
+ * 同一个实例不能被多个线程同时使用。
+ */
+public class StreamingIntFilter {
+
+    private final IntPredicate predicate;
+    private final int[] input;
+    private final int[] output;
+
+    public StreamingIntFilter(int chunkSize, IntPredicate predicate) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        this.predicate = predicate;
+        this.input = new int[chunkSize];
+        this.output = new int[chunkSize];
+    }
+
+    /**
+     * 一直处理到数据源结束，返回输入元素总数
+     */
+    public long run(IntChunkSource source, IntSink sink) throws IOException {
+        IntPredicate predicate = this.predicate;
+        int[] input = this.input;
+        int[] output = this.output;
+        long total = 0;
+        int n;
+        while ((n = source.read(input)) >= 0) {
+            int count = 0;
+            for (int i = 0; i < n; i++) {
+                int value = input[i];
+                if (predicate.test(value)) {
+                    output[count++] = value;
+                }
+            }
+            if (count > 0) {
+                sink.accept(output, count);
+            }
+            total += n;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,152 @@
+package org.openjdk.jmh.custom;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 可复用的 StringBuilder 池，避免每次请求都 new 一个 StringBuilder 再反复扩容。
+ * <p>
+ * 两种实现：
+ * <ul>
+ * <li>{@link #threadLocal(int, int)}：每个线程缓存一个 builder，没有任何同步</li>
+ * <li>{@link #striped(int, int, int)}：固定数量的槽位，线程按 id 映射到槽位，用 CAS 取出和归还，
+ * 线程很多（或者线程池经常换线程）时内存占用有上限</li>
+ * </ul>
+ * 归还时容量超过 maxRetainedCapacity 的 builder 会被丢弃，防止偶尔一次超长拼接把大数组一直留在池里。
+ * 用法：acquire 之后必须在 finally 中 release，release 之后不能再使用该 builder。
+ */
+public abstract class StringBuilderPool {
+
+    final int initialCapacity;
+    final int maxRetainedCapacity;
+
+    StringBuilderPool(int initialCapacity, int maxRetainedCapacity) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("initialCapacity must be positive: " + initialCapacity);
+        }
+        if (maxRetainedCapacity < initialCapacity) {
+            throw new IllegalArgumentException("maxRetainedCapacity must be at least initialCapacity: "
+                    + maxRetainedCapacity + " < " + initialCapacity);
+        }
+        this.initialCapacity = initialCapacity;
+        this.maxRetainedCapacity = maxRetainedCapacity;
+    }
+
+    public static StringBuilderPool threadLocal(int initialCapacity, int maxRetainedCapacity) {
+        return new ThreadLocalPool(initialCapacity, maxRetainedCapacity);
+    }
+
+    /**
+     * stripes 会向上取整为 2 的幂
+     */
+    public static StringBuilderPool striped(int stripes, int initialCapacity, int maxRetainedCapacity) {
+        return new StripedPool(stripes, initialCapacity, maxRetainedCapacity);
+    }
+
+    /**
+     * 取出一个长度为 0 的 builder，池里没有可用的时新建一个
+     */
+    public abstract StringBuilder acquire();
+
+    /**
+     * 归还 builder；容量超过 maxRetainedCapacity 时直接丢弃
+     */
+    public abstract void release(StringBuilder sb);
+
+    public int maxRetainedCapacity() {
+        return maxRetainedCapacity;
+    }
+
+    boolean retainable(StringBuilder sb) {
+        return sb.capacity() <= maxRetainedCapacity;
+    }
+
+    StringBuilder newBuilder() {
+        return new StringBuilder(initialCapacity);
+    }
+
+    private static final class ThreadLocalPool extends StringBuilderPool {
+
+        /**
+         * 用一个单元素数组作为槽位，acquire / release 只读写数组元素，不需要调用 ThreadLocal.set；
+         * 槽位为 null 表示当前线程的 builder 已经被取走（比如嵌套使用），此时新建一个
+         */
+        private final ThreadLocal<StringBuilder[]> slots = ThreadLocal.withInitial(() -> new StringBuilder[1]);
+
+        ThreadLocalPool(int initialCapacity, int maxRetainedCapacity) {
+            super(initialCapacity, maxRetainedCapacity);
+        }
+
+        @Override
+        public StringBuilder acquire() {
+            StringBuilder[] slot = slots.get();
+            StringBuilder sb = slot[0];
+            if (sb == null) {
+                return newBuilder();
+            }
+            slot[0] = null;
+            sb.setLength(0);
+            return sb;
+        }
+
+        @Override
+        public void release(StringBuilder sb) {
+            if (retainable(sb)) {
+                slots.get()[0] = sb;
+            }
+        }
+    }
+
+    private static final class StripedPool extends StringBuilderPool {
+
+        /**
+         * acquire / release 时最多尝试的槽位个数
+         */
+        private static final int MAX_PROBES = 4;
+
+        private final AtomicReferenceArray<StringBuilder> slots;
+        private final int mask;
+
+        StripedPool(int stripes, int initialCapacity, int maxRetainedCapacity) {
+            super(initialCapacity, maxRetainedCapacity);
+            if (stripes <= 0 || stripes > 1 << 16) {
+                throw new IllegalArgumentException("stripes must be in [1, 65536]: " + stripes);
+            }
+            int size = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+            this.slots = new AtomicReferenceArray<>(size);
+            this.mask = size - 1;
+        }
+
+        @Override
+        public StringBuilder acquire() {
+            int home = home();
+            for (int i = 0; i < MAX_PROBES && i <= mask; i++) {
+                int index = (home + i) & mask;
+                StringBuilder sb = slots.get(index);
+                if (sb != null && slots.compareAndSet(index, sb, null)) {
+                    sb.setLength(0);
+                    return sb;
+                }
+            }
+            return newBuilder();
+        }
+
+        @Override
+        public void release(StringBuilder sb) {
+            if (!retainable(sb)) {
+                return;
+            }
+            int home = home();
+            for (int i = 0; i < MAX_PROBES && i <= mask; i++) {
+                int index = (home + i) & mask;
+                if (slots.get(index) == null && slots.compareAndSet(index, null, sb)) {
+                    return;
+                }
+            }
+            // 槽位都满了，丢弃
+        }
+
+        private int home() {
+            return IntOpenHashSet.mix((int) Thread.currentThread().getId()) & mask;
+        }
+    }
+}
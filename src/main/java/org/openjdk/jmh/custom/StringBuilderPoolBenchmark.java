@@ -0,0 +1,143 @@
+package org.openjdk.jmh.custom;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多线程下拼接字符串：每次 new StringBuilder、所有线程共享一个 StringBuffer、StringBuilderPool 的对比。
+ * <p>
+ * 每次操作从 {@link StringBuilderVsStringBufferBenchmark.MyState#preparedStrList} 中取 fragments 个片段拼成一条消息。
+ * 共享的 StringBuffer 需要在整条消息外面加锁（否则不同线程的片段会交错），线程越多争用越严重。
+ * <p>
+ * 直接运行 main 方法会依次用 1、2、4 ... 64 个线程运行，并打开 GCProfiler，
+ * 最后打印每种方式的吞吐量和每次操作分配的字节数；也可以用 -t 指定线程数。
+ */
+
+@BenchmarkMode({Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms1G", "-Xmx1G"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(value = 1)
+public class StringBuilderPoolBenchmark {
+
+    private static final int[] THREADS = {1, 2, 4, 8, 16, 32, 64};
+
+    public static void main(String[] args) throws RunnerException {
+        List<RunResult> results = new ArrayList<>();
+        for (int threads : THREADS) {
+            Options opt = new OptionsBuilder()
+                    .include(StringBuilderPoolBenchmark.class.getSimpleName())
+                    .addProfiler(GCProfiler.class)
+                    .threads(threads)
+                    .build();
+            results.addAll(new Runner(opt).run());
+        }
+
+        System.out.println();
+        System.out.println("Throughput (ops/us) and allocation (B/op):");
+        for (RunResult result : results) {
+            String benchmark = result.getParams().getBenchmark();
+            Result<?> allocNorm = result.getSecondaryResults().get("·gc.alloc.rate.norm");
+            System.out.printf("%-20s threads=%-3d fragments=%-5s %10.3f ops/us %10.1f B/op%n",
+                    benchmark.substring(benchmark.lastIndexOf('.') + 1),
+                    result.getParams().getThreads(),
+                    result.getParams().getParam("fragments"),
+                    result.getPrimaryResult().getScore(),
+                    allocNorm == null ? Double.NaN : allocNorm.getScore());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+
+        @Param({"10", "100"})
+        int fragments;
+
+        List<String> preparedStrList;
+
+        StringBuffer buffer = new StringBuffer(16);
+
+        StringBuilderPool threadLocalPool = StringBuilderPool.threadLocal(16, 64 * 1024);
+
+        StringBuilderPool stripedPool = StringBuilderPool.striped(
+                Runtime.getRuntime().availableProcessors() * 2, 16, 64 * 1024);
+
+        @Setup
+        public void setUp(StringBuilderVsStringBufferBenchmark.MyState state) {
+            preparedStrList = state.preparedStrList;
+        }
+    }
+
+    /**
+     * 每个线程从不同的位置开始取片段
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        int offset;
+
+        @Setup
+        public void setUp(Shared shared, ThreadParams threadParams) {
+            offset = threadParams.getThreadIndex() * 97 % (shared.preparedStrList.size() - shared.fragments);
+        }
+    }
+
+    @Benchmark
+    public String newStringBuilder(Shared shared, Cursor cursor) {
+        StringBuilder sb = new StringBuilder();
+        appendFragments(sb, shared, cursor);
+        return sb.toString();
+    }
+
+    @Benchmark
+    public String sharedStringBuffer(Shared shared, Cursor cursor) {
+        StringBuffer buffer = shared.buffer;
+        synchronized (buffer) {
+            buffer.setLength(0);
+            List<String> fragments = shared.preparedStrList;
+            for (int i = 0; i < shared.fragments; i++) {
+                buffer.append(fragments.get(cursor.offset + i));
+            }
+            return buffer.toString();
+        }
+    }
+
+    @Benchmark
+    public String threadLocalPool(Shared shared, Cursor cursor) {
+        return pooled(shared.threadLocalPool, shared, cursor);
+    }
+
+    @Benchmark
+    public String stripedPool(Shared shared, Cursor cursor) {
+        return pooled(shared.stripedPool, shared, cursor);
+    }
+
+    private static String pooled(StringBuilderPool pool, Shared shared, Cursor cursor) {
+        StringBuilder sb = pool.acquire();
+        try {
+            appendFragments(sb, shared, cursor);
+            return sb.toString();
+        } finally {
+            pool.release(sb);
+        }
+    }
+
+    private static void appendFragments(StringBuilder sb, Shared shared, Cursor cursor) {
+        List<String> fragments = shared.preparedStrList;
+        for (int i = 0; i < shared.fragments; i++) {
+            sb.append(fragments.get(cursor.offset + i));
+        }
+    }
+}
@@ -6,6 +6,8 @@ import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.IntStream;
@@ -72,6 +74,54 @@ public class StringBuilderVsStringBufferBenchmark {
         return sb.toString();
     }
 
+    /**
+     * 基线：StringBuilder 拼好之后转成 String 再编码，写入 ByteBuffer
+     */
+    @Benchmark
+    public int stringBuilderWithCapacityToByteBuffer(MyState state, AsciiState ascii) {
+        StringBuilder sb = new StringBuilder(iterations * 5);
+        for (int i = 0; i < iterations; i++) {
+            sb.append(state.preparedStrList.get(i));
+        }
+        ByteBuffer target = ascii.target;
+        target.clear();
+        target.put(sb.toString().getBytes(StandardCharsets.US_ASCII));
+        return target.position();
+    }
+
+    @Benchmark
+    public int asciiBuilder(MyState state, AsciiState ascii) {
+        AsciiBuilder builder = ascii.builder.reset();
+        for (int i = 0; i < iterations; i++) {
+            builder.append(state.preparedStrList.get(i));
+        }
+        ByteBuffer target = ascii.target;
+        target.clear();
+        return builder.writeTo(target);
+    }
+
+    /**
+     * 直接把数字编码成 ASCII，不需要事先准备好的字符串
+     */
+    @Benchmark
+    public int asciiBuilderAppendInt(AsciiState ascii) {
+        AsciiBuilder builder = ascii.builder.reset();
+        for (int i = 0; i < iterations; i++) {
+            builder.append(10001 + i);
+        }
+        ByteBuffer target = ascii.target;
+        target.clear();
+        return builder.writeTo(target);
+    }
+
+    @State(Scope.Thread)
+    public static class AsciiState {
+
+        AsciiBuilder builder = new AsciiBuilder(1 << 16);
+
+        ByteBuffer target = ByteBuffer.allocateDirect(1 << 16);
+    }
+
     @State(Scope.Benchmark)
     public static class MyState {
 
@@ -0,0 +1,109 @@
+package org.openjdk.jmh.custom;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 拼接大量变长片段：按 iterations * 5 猜容量的 StringBuilder、两遍精确拼接、rope 的对比。
+ * <p>
+ * 片段由 {@link StringBuilderVsStringBufferBenchmark.MyState#preparedStrList} 重复或截断而来，
+ * 长度在 [1, maxFragmentLength] 内均匀分布；maxFragmentLength 为 1 时所有片段都只有一个字符。
+ */
+
+@BenchmarkMode({Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms2G", "-Xmx2G"})
+@Warmup(iterations = 3)
+@State(Scope.Benchmark)
+@Measurement(iterations = 5)
+public class StringJoinBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int iterations;
+
+    @Param({"1", "10", "100", "1000"})
+    private int maxFragmentLength;
+
+    private List<String> fragments;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(StringJoinBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup
+    public void setUp(StringBuilderVsStringBufferBenchmark.MyState state) {
+        Random random = new Random(42L);
+        fragments = new ArrayList<>(iterations);
+        for (int i = 0; i < iterations; i++) {
+            String prepared = state.preparedStrList.get(i);
+            int length = 1 + random.nextInt(maxFragmentLength);
+            StringBuilder sb = new StringBuilder(length);
+            while (sb.length() < length) {
+                sb.append(prepared);
+            }
+            sb.setLength(length);
+            fragments.add(sb.toString());
+        }
+    }
+
+    @Benchmark
+    public String stringBuilderWithCapacity() {
+        StringBuilder sb = new StringBuilder(iterations * 5);
+        for (int i = 0; i < iterations; i++) {
+            sb.append(fragments.get(i));
+        }
+        return sb.toString();
+    }
+
+    @Benchmark
+    public String stringJoin() {
+        return String.join("", fragments);
+    }
+
+    @Benchmark
+    public String exactSizeJoin() {
+        return ExactSizeJoiner.join(fragments);
+    }
+
+    @Benchmark
+    public String ropeToString() {
+        Rope rope = new Rope(iterations);
+        for (int i = 0; i < iterations; i++) {
+            rope.append(fragments.get(i));
+        }
+        return rope.toString();
+    }
+
+    /**
+     * 只追加不拼接：rope 只记录引用，与 StringBuilder 的逐个拷贝相比
+     */
+    @Benchmark
+    public int ropeAppendOnly() {
+        Rope rope = new Rope(iterations);
+        for (int i = 0; i < iterations; i++) {
+            rope.append(fragments.get(i));
+        }
+        return rope.length();
+    }
+
+    @Benchmark
+    public int stringBuilderAppendOnly() {
+        StringBuilder sb = new StringBuilder(iterations * 5);
+        for (int i = 0; i < iterations; i++) {
+            sb.append(fragments.get(i));
+        }
+        return sb.length();
+    }
+}
@@ -30,7 +30,10 @@
  */
 package org.openjdk.jmh.samples;
 
+import org.agrona.collections.Int2IntHashMap;
 import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.custom.Int2IntOpenHashMap;
+import org.openjdk.jmh.custom.OffHeapInt2IntHashMap;
 import org.openjdk.jmh.infra.Blackhole;
 import org.openjdk.jmh.profile.ClassloaderProfiler;
 import org.openjdk.jmh.profile.LinuxPerfProfiler;
@@ -81,7 +84,15 @@ public class JMHSample_35_Profilers {
     public static class Maps {
         private Map<Integer, Integer> map;
 
-        @Param({"hashmap", "treemap"})
+        /*
+         * Primitive int->int maps, to show the boxing garbage goes away. Only one of these
+         * (or the boxed map above) is populated, depending on the type.
+         */
+        private Int2IntOpenHashMap primitiveMap;
+        private Int2IntHashMap agronaMap;
+        private OffHeapInt2IntHashMap offHeapMap;
+
+        @Param({"hashmap", "treemap", "primitive", "agrona", "offheap"})
         private String type;
 
         private int begin;
@@ -96,6 +107,15 @@ public class JMHSample_35_Profilers {
                 case "treemap":
                     map = new TreeMap<>();
                     break;
+                case "primitive":
+                    primitiveMap = new Int2IntOpenHashMap(-1);
+                    break;
+                case "agrona":
+                    agronaMap = new Int2IntHashMap(-1);
+                    break;
+                case "offheap":
+                    offHeapMap = new OffHeapInt2IntHashMap(256, -1);
+                    break;
                 default:
                     throw new IllegalStateException("Unknown type: " + type);
             }
@@ -103,14 +123,36 @@ public class JMHSample_35_Profilers {
             begin = 1;
             end = 256;
             for (int i = begin; i < end; i++) {
-                map.put(i, i);
+                if (map != null) {
+                    map.put(i, i);
+                } else if (primitiveMap != null) {
+                    primitiveMap.put(i, i);
+                } else if (agronaMap != null) {
+                    agronaMap.put(i, i);
+                } else {
+                    offHeapMap.put(i, i);
+                }
             }
         }
 
         @Benchmark
         public void test(Blackhole bh) {
-            for (int i = begin; i < end; i++) {
-                bh.consume(map.get(i));
+            if (primitiveMap != null) {
+                for (int i = begin; i < end; i++) {
+                    bh.consume(primitiveMap.get(i));
+                }
+            } else if (agronaMap != null) {
+                for (int i = begin; i < end; i++) {
+                    bh.consume(agronaMap.get(i));
+                }
+            } else if (offHeapMap != null) {
+                for (int i = begin; i < end; i++) {
+                    bh.consume(offHeapMap.get(i));
+                }
+            } else {
+                for (int i = begin; i < end; i++) {
+                    bh.consume(map.get(i));
+                }
             }
         }
 
@@ -196,6 +238,8 @@ public class JMHSample_35_Profilers {
             benchmark operation.
 
             If you look closely at the test, you can get a (correct) hypothesis this is due to Integer autoboxing.
+            The "primitive", "agrona" and "offheap" types look up the same keys through int->int maps, and
+            "gc.alloc.rate.norm" drops to ~0 B/op for them, which confirms the hypothesis.
 
             Note that "gc.alloc" counters generally produce more accurate data, but they can also fail when threads come and
             go over the course of the benchmark. "gc.churn" values are updated on each GC event, and so if you want a more accurate